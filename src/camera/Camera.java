@@ -3,8 +3,11 @@ package camera;
 import ray.Ray;
 import mathlib.Point3;
 import mathlib.Vector3;
+import sampling.SampleSequence;
 import sampling.SamplingPattern;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,6 +21,11 @@ public abstract class Camera implements Comparable<Camera>{
     public final Vector3 g, t, u, v, w;
     public final SamplingPattern samplingPattern;
 
+    /**
+     * generator of the samples, null if the camera uses the samplingPattern
+     */
+    public final SampleSequence sampleSequence;
+
     /**
      * Constructor for Camera
      *
@@ -26,10 +34,27 @@ public abstract class Camera implements Comparable<Camera>{
      * @param t up-vector       (Vector3)
      */
     public Camera(final Point3 e, final Vector3 g, final Vector3 t, final SamplingPattern samplingPattern) {
+        this(e, g, t, samplingPattern, null);
+    }
+
+    /**
+     * Constructor for Camera with a sample generator
+     *
+     * @param e              eye-position    (Point3)
+     * @param g              gaze-direction  (Vector3)
+     * @param t              up-vector       (Vector3)
+     * @param sampleSequence generator of the samples of every pixel
+     */
+    public Camera(final Point3 e, final Vector3 g, final Vector3 t, final SampleSequence sampleSequence) {
+        this(e, g, t, null, sampleSequence);
+    }
+
+    private Camera(final Point3 e, final Vector3 g, final Vector3 t, final SamplingPattern samplingPattern, final SampleSequence sampleSequence) {
         this.e = e;
         this.g = g;
         this.t = t;
         this.samplingPattern = samplingPattern;
+        this.sampleSequence = sampleSequence;
 
         w = calculateW(g);      // z-axis of Camera
         u = calculateU(t, w);   // x-axis of Camera
@@ -70,16 +95,39 @@ public abstract class Camera implements Comparable<Camera>{
     }
 
     /**
-     * Method returns a Ray for the given parameters x and y
-     *
+     * Method returns the Rays for the given parameters x and y.
+     * Renderers should use frame(width, height) once per image instead, this method sets up a new frame for every call.
      *
      * @param width width of the picture
      * @param height height of the picture
      * @param x x-coordinate
      * @param y y-coordinate
-     * @return calculated Ray (by implementation)
+     * @return calculated Rays (by implementation)
+     */
+    public List<Ray> rayFor(final int width, final int height, final int x, final int y) {
+        final CameraFrame frame = frame(width, height);
+        final Ray[] rays = new Ray[frame.samplesPerPixel];
+        frame.raysFor(x, y, rays);
+        return new ArrayList<Ray>(Arrays.asList(rays));
+    }
+
+    /**
+     * Method returns the number of positions in a pixel, from the sequence or the sampling pattern
+     *
+     * @return number of samples per pixel, without lens positions or time steps
+     */
+    protected int sampleCount() {
+        return (sampleSequence != null) ? sampleSequence.size : samplingPattern.points.size();
+    }
+
+    /**
+     * Method returns the frame of the camera for the given image size, it holds all constants of the projection
+     *
+     * @param width width of the picture
+     * @param height height of the picture
+     * @return frame generating the rays for every pixel (by implementation)
      */
-    public abstract List<Ray> rayFor(final int width, final int height, final int x, final int y);
+    public abstract CameraFrame frame(final int width, final int height);
 
     /**
      * Method builds an evenly distributed hash value for the Camera
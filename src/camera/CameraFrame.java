@@ -0,0 +1,113 @@
+package camera;
+
+import mathlib.Point2;
+import ray.Ray;
+import sampling.SampleSequence;
+import sampling.SamplingPattern;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class represents a camera fixed to one image size. All constants of the
+ * projection (e.g. tan(angle/2), -w and the image center) are calculated once
+ * per image, so generating the rays of a pixel only needs a few multiplications.
+ * A frame holds no mutable state and can be shared between render threads.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public abstract class CameraFrame {
+
+    /**
+     * width and height of the image in pixels
+     */
+    public final int width, height;
+
+    /**
+     * number of rays generated for every pixel
+     */
+    public final int samplesPerPixel;
+
+    /**
+     * x and y offsets of the sampling pattern, relative to the pixel center, empty if a SampleSequence is used
+     */
+    protected final double[] sampleX, sampleY;
+
+    /**
+     * generator of the samples, null if the sampling pattern is used
+     */
+    protected final SampleSequence sequence;
+
+    /**
+     * number of positions in the pixel, without lens positions or time steps
+     */
+    protected final int sampleCount;
+
+    /**
+     * Constructor for CameraFrame
+     *
+     * @param width           width of the picture
+     * @param height          height of the picture
+     * @param pattern         sampling pattern of the camera, used if sequence is null
+     * @param sequence        sample generator of the camera, null for the sampling pattern
+     * @param samplesPerPixel number of rays generated for every pixel
+     */
+    protected CameraFrame(final int width, final int height, final SamplingPattern pattern, final SampleSequence sequence, final int samplesPerPixel) {
+        this.width = width;
+        this.height = height;
+        this.samplesPerPixel = samplesPerPixel;
+        this.sequence = sequence;
+        final List<Point2> samples = (sequence == null) ? pattern.points : Collections.<Point2>emptyList();
+        this.sampleCount = (sequence == null) ? samples.size() : sequence.size;
+        this.sampleX = new double[samples.size()];
+        this.sampleY = new double[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            sampleX[i] = samples.get(i).x;
+            sampleY[i] = samples.get(i).y;
+        }
+    }
+
+    /**
+     * x offset of a sample relative to the pixel center
+     *
+     * @param x x-coordinate of the pixel
+     * @param y y-coordinate of the pixel
+     * @param i index of the sample, between 0 and sampleCount - 1
+     * @return offset between -0.5 and 0.5
+     */
+    protected final double offsetX(final int x, final int y, final int i) {
+        return (sequence == null) ? sampleX[i] : sequence.sample(y * width + x, i, 0) - 0.5;
+    }
+
+    /**
+     * y offset of a sample relative to the pixel center
+     *
+     * @param x x-coordinate of the pixel
+     * @param y y-coordinate of the pixel
+     * @param i index of the sample, between 0 and sampleCount - 1
+     * @return offset between -0.5 and 0.5
+     */
+    protected final double offsetY(final int x, final int y, final int i) {
+        return (sequence == null) ? sampleY[i] : sequence.sample(y * width + x, i, 1) - 0.5;
+    }
+
+    /**
+     * Method writes the rays of the given pixel into the given array
+     *
+     * @param x    x-coordinate
+     * @param y    y-coordinate
+     * @param rays target array, at least samplesPerPixel long, it is filled from index 0
+     */
+    public abstract void raysFor(final int x, final int y, final Ray[] rays);
+
+    /**
+     * Method returns a single ray of the given pixel, the same ray raysFor writes to index sample
+     *
+     * @param x      x-coordinate
+     * @param y      y-coordinate
+     * @param sample index of the ray, between 0 and samplesPerPixel - 1
+     * @return the ray
+     */
+    public abstract Ray rayFor(final int x, final int y, final int sample);
+}
@@ -4,9 +4,9 @@ import mathlib.Point2;
 import mathlib.Point3;
 import mathlib.Vector3;
 import ray.Ray;
+import sampling.SampleSequence;
 import sampling.SamplingPattern;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,6 +20,9 @@ public class DOFCamera extends Camera {
     public final double a;
     public final double focalLength;
     public final double lensRadius;
+    /**
+     * lens positions of the sampling pattern mapped to the disc, null if a SampleSequence is used
+     */
     public final List<Point2> lensSamplingPoints;
 
 
@@ -42,45 +45,108 @@ public class DOFCamera extends Camera {
     }
 
     /**
-     * Method returns a Ray for the given parameters x and y
+     * Constructor for DOFCamera with a sample generator, every sample gets its own position
+     * on the lens from the lens dimensions of the sequence, mapped to the disc
      *
-     * @param widthI  width of the picture
-     * @param heightI height of the picture
-     * @param xI      x-coordinate
-     * @param yI      y-coordinate
-     * @return calculated Ray
+     * @param e              eye-position                            (Point3)
+     * @param g              gaze-direction                          (Vector3)
+     * @param t              up-vector                               (Vector3)
+     * @param a              The half angle of view                  (double)
+     * @param focalLength    The distance to the focus plane         (double)
+     * @param lensRadius     The radius of the simulated lense       (double)
+     * @param sampleSequence generator of the samples of every pixel
      */
-    @Override
-    public List<Ray> rayFor(int widthI, int heightI, int xI, int yI) {
-        List<Ray> rays = new ArrayList<Ray>();
-
-        double x = (double) xI;
-        double y = (double) yI;
-        double width = (double) widthI;
-        double height = (double) heightI;
-
-        final Vector3 mw = this.w.mul(-1);   // direction for Ray
-        final double one = height / 2 / Math.tan(a / 2);
-        final double two = (width - 1) / 2;
-        final double three = (height - 1) / 2;
-
-        for (Point2 p : this.samplingPattern.points) {
-            double px = x - two + p.x;
-            double py = y - three + p.y;
+    public DOFCamera(final Point3 e, final Vector3 g, final Vector3 t, double a, double focalLength, double lensRadius, final SampleSequence sampleSequence) {
+        super(e, g, t, sampleSequence);
+        this.a = a;
+        this.focalLength = focalLength;
+        this.lensRadius = lensRadius;
+        this.lensSamplingPoints = null;
+    }
 
-            double fx = px * focalLength / one;
-            double fy = py * focalLength / one;
+    /**
+     * Method returns the frame of the camera for the given image size,
+     * with a sampling pattern the ray origins on the lens are the same for every pixel and calculated only once
+     *
+     * @param width  width of the picture
+     * @param height height of the picture
+     * @return frame generating the rays for every pixel
+     */
+    @Override
+    public CameraFrame frame(final int width, final int height) {
+        final double one = height / 2.0 / Math.tan(a / 2);
+        final double two = (width - 1) / 2.0;
+        final double three = (height - 1) / 2.0;
+        final double scale = focalLength / one;
+        // center of the focus plane: e - w * focalLength
+        final double fcx = e.x - w.x * focalLength;
+        final double fcy = e.y - w.y * focalLength;
+        final double fcz = e.z - w.z * focalLength;
+
+        if (sampleSequence != null) {
+            return new CameraFrame(width, height, samplingPattern, sampleSequence, sampleCount()) {
+                @Override
+                public void raysFor(final int x, final int y, final Ray[] rays) {
+                    for (int i = 0; i < samplesPerPixel; i++) {
+                        rays[i] = rayFor(x, y, i);
+                    }
+                }
+
+                @Override
+                public Ray rayFor(final int x, final int y, final int sample) {
+                    final int pixel = y * width + x;
+                    final double fx = (x - two + offsetX(x, y, sample)) * scale;
+                    final double fy = (y - three + offsetY(x, y, sample)) * scale;
+                    // position on the lens
+                    final double lx = sequence.sample(pixel, sample, 2) - 0.5;
+                    final double ly = sequence.sample(pixel, sample, 3) - 0.5;
+                    final double du = SampleSequence.discX(lx, ly) * lensRadius;
+                    final double dv = SampleSequence.discY(lx, ly) * lensRadius;
+                    final Point3 o = new Point3(e.x + u.x * du + v.x * dv,
+                                                e.y + u.y * du + v.y * dv,
+                                                e.z + u.z * du + v.z * dv);
+                    return new Ray(o, new Vector3(fcx + u.x * fx + v.x * fy - o.x,
+                                                  fcy + u.y * fx + v.y * fy - o.y,
+                                                  fcz + u.z * fx + v.z * fy - o.z));
+                }
+            };
+        }
 
-            Point3 fp = e.add(mw.mul(focalLength)).add(u.mul(fx)).add(v.mul(fy));
+        final Point3[] origins = new Point3[lensSamplingPoints.size()];
+        for (int i = 0; i < origins.length; i++) {
+            final Point2 lensP = lensSamplingPoints.get(i);
+            origins[i] = e.add(u.mul(lensP.x).mul(lensRadius)).add(v.mul(lensP.y).mul(lensRadius));
+        }
 
-            for (Point2 lensP : lensSamplingPoints) {
-                Point3 o = e.add(u.mul(lensP.x).mul(lensRadius)).add(v.mul(lensP.y).mul(lensRadius));
-                Vector3 d = (fp.sub(o)).normalized();
+        return new CameraFrame(width, height, samplingPattern, sampleSequence, sampleCount() * origins.length) {
+            @Override
+            public void raysFor(final int x, final int y, final Ray[] rays) {
+                int n = 0;
+                for (int i = 0; i < sampleCount; i++) {
+                    final double fx = (x - two + sampleX[i]) * scale;
+                    final double fy = (y - three + sampleY[i]) * scale;
+                    // point on the focus plane
+                    final double px = fcx + u.x * fx + v.x * fy;
+                    final double py = fcy + u.y * fx + v.y * fy;
+                    final double pz = fcz + u.z * fx + v.z * fy;
+
+                    for (final Point3 o : origins) {
+                        rays[n++] = new Ray(o, new Vector3(px - o.x, py - o.y, pz - o.z));
+                    }
+                }
+            }
 
-                rays.add(new Ray(o, d));
+            @Override
+            public Ray rayFor(final int x, final int y, final int sample) {
+                final int i = sample / origins.length;
+                final Point3 o = origins[sample % origins.length];
+                final double fx = (x - two + sampleX[i]) * scale;
+                final double fy = (y - three + sampleY[i]) * scale;
+                return new Ray(o, new Vector3(fcx + u.x * fx + v.x * fy - o.x,
+                                              fcy + u.y * fx + v.y * fy - o.y,
+                                              fcz + u.z * fx + v.z * fy - o.z));
             }
-        }
-        return rays;
+        };
     }
 
     @Override
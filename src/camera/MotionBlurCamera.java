@@ -1,14 +1,11 @@
 package camera;
 
-import mathlib.Point2;
 import mathlib.Point3;
 import mathlib.Vector3;
 import ray.Ray;
+import sampling.SampleSequence;
 import sampling.SamplingPattern;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class represents a perspective camera for the ray tracer
  *
@@ -38,42 +35,71 @@ public class MotionBlurCamera extends Camera {
     }
 
     /**
-     * Method returns a Ray for the given parameters x and y
+     * Constructor for MotionBlurCamera with a sample generator
      *
-     * @param widthI  width of the picture
-     * @param heightI height of the picture
-     * @param xI      x-coordinate
-     * @param yI      y-coordinate
-     * @return calculated Ray
+     * @param e              eye-position    (Point3)
+     * @param g              gaze-direction  (Vector3)
+     * @param t              up-vector       (Vector3)
+     * @param angle          angle           (double)
+     * @param focalTime      number of time steps
+     * @param stepLength     length of a time step
+     * @param sampleSequence generator of the samples of every pixel
      */
-    @Override
-    public List<Ray> rayFor(final int widthI, final int heightI, final int xI, final int yI) {
-        List<Ray> rays = new ArrayList<Ray>();
-
-        double x = (double) xI;
-        double y = (double) yI;
-        double width = (double) widthI;
-        double height = (double) heightI;
-
-        for (Point2 p : this.samplingPattern.points) {
-            Point3 o = this.e;                                                                              // origin is eye-position
-
-            double factorA = (height / 2) / Math.tan(angle / 2);                                              // calculation of 1st factor for ray direction calculation
-            double factorB = x + p.x - (width - 1) / 2;                                                           // calculation of 2nd factor for ray direction calculation
-            double factorC = y + p.y - (height - 1) / 2;                                                          // calculation of 3rd factor for ray direction calculation
-
-            // Motion Blur Effect
-            for (int i = 0; i < this.focalTime; i++) {
-                double move = (double) i / this.stepLength;
-
-                Vector3 r = this.w.mul(-1).mul(factorA).add(this.u.mul(factorB)).add(this.v.mul(factorC)).sub(new Vector3(move, 0, 0));      // ray direction calculation using factorA, factorB & factorC
-                Vector3 d = r.normalized();                                                                                                 // normalisation of r
+    public MotionBlurCamera(final Point3 e, final Vector3 g, final Vector3 t, final double angle, final double focalTime, final double stepLength, final SampleSequence sampleSequence) {
+        super(e, g, t, sampleSequence);
+        this.angle = angle;
+        this.focalTime = focalTime;
+        this.stepLength = stepLength;
+    }
 
-                rays.add(new Ray(o, d));
+    /**
+     * Method returns the frame of the camera for the given image size
+     *
+     * @param width  width of the picture
+     * @param height height of the picture
+     * @return frame generating the rays for every pixel
+     */
+    @Override
+    public CameraFrame frame(final int width, final int height) {
+        final double factorA = (height / 2.0) / Math.tan(angle / 2);                                       // distance to the image plane
+        final double cx = (width - 1) / 2.0;
+        final double cy = (height - 1) / 2.0;
+        final double bx = -w.x * factorA - u.x * cx - v.x * cy;
+        final double by = -w.y * factorA - u.y * cx - v.y * cy;
+        final double bz = -w.z * factorA - u.z * cx - v.z * cy;
+
+        // Motion Blur Effect: one shifted ray per time step, a focal time of 0 or less gives one ray without motion
+        final int steps = Math.max(1, (int) Math.ceil(this.focalTime));
+        final double[] moves = new double[steps];
+        for (int i = 0; i < steps; i++) moves[i] = (double) i / this.stepLength;
+
+        return new CameraFrame(width, height, samplingPattern, sampleSequence, sampleCount() * steps) {
+            @Override
+            public void raysFor(final int x, final int y, final Ray[] rays) {
+                int n = 0;
+                for (int i = 0; i < sampleCount; i++) {
+                    final double fx = x + offsetX(x, y, i);
+                    final double fy = y + offsetY(x, y, i);
+                    final double dx = bx + u.x * fx + v.x * fy;
+                    final double dy = by + u.y * fx + v.y * fy;
+                    final double dz = bz + u.z * fx + v.z * fy;
+
+                    for (final double move : moves) {
+                        rays[n++] = new Ray(e, new Vector3(dx - move, dy, dz));
+                    }
+                }
             }
-        }
 
-        return rays;
+            @Override
+            public Ray rayFor(final int x, final int y, final int sample) {
+                final int i = sample / moves.length;
+                final double fx = x + offsetX(x, y, i);
+                final double fy = y + offsetY(x, y, i);
+                return new Ray(e, new Vector3(bx + u.x * fx + v.x * fy - moves[sample % moves.length],
+                                              by + u.y * fx + v.y * fy,
+                                              bz + u.z * fx + v.z * fy));
+            }
+        };
     }
 
     /**
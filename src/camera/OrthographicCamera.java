@@ -1,14 +1,11 @@
 package camera;
 
-import mathlib.Point2;
 import ray.Ray;
 import mathlib.Point3;
 import mathlib.Vector3;
+import sampling.SampleSequence;
 import sampling.SamplingPattern;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class represents an orthographic camera for the ray tracer
  *
@@ -32,34 +29,56 @@ public class OrthographicCamera extends Camera {
     }
 
     /**
-     * Method returns a Ray for the given parameters x and y
+     * Constructor for OrthographicCamera with a sample generator
      *
-     * @param widthI width of the picture
-     * @param heightI height of the picture
-     * @param xI x-coordinate
-     * @param yI y-coordinate
-     * @return calculated Ray
+     * @param e              eye-position    (Point3)
+     * @param g              gaze-direction  (Vector3)
+     * @param t              up-vector       (Vector3)
+     * @param s              scaling factor  (double)
+     * @param sampleSequence generator of the samples of every pixel
      */
-    @Override
-    public List<Ray> rayFor(int widthI, int heightI, int xI, int yI) {
-        List<Ray> rays = new ArrayList<Ray>();
-
-        double x = (double) xI;
-        double y = (double) yI;
-        double width = (double) widthI;
-        double height = (double) heightI;
-        
-        for(Point2 p: this.samplingPattern.points) {
-            Vector3 d = this.w.mul(-1);                                                     // direction for Ray
-
-            double a = width / height;                                                      // aspect-ratio
-            double factorA = this.s * a * (x + p.x - (width - 1) / 2) / (width - 1);              // calculation of 1st factor for origin calculation
-            double factorB = this.s * (y + p.y - (height - 1) / 2) / (height - 1);                // calculation of 2nd factor for origin calculation
-            Point3 o = this.e.add(this.u.mul(factorA)).add(this.v.mul(factorB));            // origin calculation using factorA and factorB
+    public OrthographicCamera(final Point3 e, final Vector3 g, final Vector3 t, final double s, final SampleSequence sampleSequence) {
+        super(e, g, t, sampleSequence);
+        this.s = s;
+    }
 
-            rays.add(new Ray(o, d));
-        }
-        return rays;
+    /**
+     * Method returns the frame of the camera for the given image size
+     *
+     * @param width  width of the picture
+     * @param height height of the picture
+     * @return frame generating the rays for every pixel
+     */
+    @Override
+    public CameraFrame frame(final int width, final int height) {
+        final Vector3 d = this.w.mul(-1);                                                   // direction for all rays
+        final double a = (double) width / height;                                           // aspect-ratio
+        final double cx = (width - 1) / 2.0;
+        final double cy = (height - 1) / 2.0;
+        final double scaleX = this.s * a / (width - 1);
+        final double scaleY = this.s / (height - 1);
+
+        return new CameraFrame(width, height, samplingPattern, sampleSequence, sampleCount()) {
+            @Override
+            public void raysFor(final int x, final int y, final Ray[] rays) {
+                for (int i = 0; i < samplesPerPixel; i++) {
+                    final double factorA = scaleX * (x + offsetX(x, y, i) - cx);
+                    final double factorB = scaleY * (y + offsetY(x, y, i) - cy);
+                    rays[i] = new Ray(new Point3(e.x + u.x * factorA + v.x * factorB,
+                                                 e.y + u.y * factorA + v.y * factorB,
+                                                 e.z + u.z * factorA + v.z * factorB), d);
+                }
+            }
+
+            @Override
+            public Ray rayFor(final int x, final int y, final int sample) {
+                final double factorA = scaleX * (x + offsetX(x, y, sample) - cx);
+                final double factorB = scaleY * (y + offsetY(x, y, sample) - cy);
+                return new Ray(new Point3(e.x + u.x * factorA + v.x * factorB,
+                                          e.y + u.y * factorA + v.y * factorB,
+                                          e.z + u.z * factorA + v.z * factorB), d);
+            }
+        };
     }
 
     /**
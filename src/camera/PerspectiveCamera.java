@@ -1,14 +1,11 @@
 package camera;
 
-import mathlib.Point2;
 import ray.Ray;
 import mathlib.Point3;
 import mathlib.Vector3;
+import sampling.SampleSequence;
 import sampling.SamplingPattern;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class represents a perspective camera for the ray tracer
  *
@@ -32,36 +29,57 @@ public class PerspectiveCamera extends Camera {
     }
 
     /**
-     * Method returns a Ray for the given parameters x and y
+     * Constructor for PerspectiveCamera with a sample generator
      *
-     * @param widthI width of the picture
-     * @param heightI height of the picture
-     * @param xI x-coordinate
-     * @param yI y-coordinate
-     * @return calculated Ray
+     * @param e              eye-position    (Point3)
+     * @param g              gaze-direction  (Vector3)
+     * @param t              up-vector       (Vector3)
+     * @param angle          angle           (double)
+     * @param sampleSequence generator of the samples of every pixel
      */
-    @Override
-    public List<Ray> rayFor(final int widthI, final int heightI, final int xI, final int yI) {
-        List<Ray> rays = new ArrayList<Ray>();
-
-        double x = (double) xI;
-        double y = (double) yI;
-        double width = (double) widthI;
-        double height = (double) heightI;
-        
-        for(Point2 p: this.samplingPattern.points) {
-            Point3 o = this.e;                                                                              // origin is eye-position
-
-            double factorA = (height / 2) / Math.tan(angle / 2);                                              // calculation of 1st factor for ray direction calculation
-            double factorB = x + p.x - (width - 1) / 2;                                                           // calculation of 2nd factor for ray direction calculation
-            double factorC = y + p.y - (height - 1) / 2;                                                          // calculation of 3rd factor for ray direction calculation
-            Vector3 r = this.w.mul(-1).mul(factorA).add(this.u.mul(factorB)).add(this.v.mul(factorC));      // ray direction calculation using factorA, factorB & factorC
-            Vector3 d = r.normalized();                                                                     // normalisation of r
-
-            rays.add(new Ray(o, d));
-        }
+    public PerspectiveCamera(final Point3 e, final Vector3 g, final Vector3 t, final double angle, final SampleSequence sampleSequence) {
+        super(e, g, t, sampleSequence);
+        this.angle = angle;
+    }
 
-        return rays;
+    /**
+     * Method returns the frame of the camera for the given image size
+     *
+     * @param width  width of the picture
+     * @param height height of the picture
+     * @return frame generating the rays for every pixel
+     */
+    @Override
+    public CameraFrame frame(final int width, final int height) {
+        final double factorA = (height / 2.0) / Math.tan(angle / 2);                                       // distance to the image plane
+        final double cx = (width - 1) / 2.0;
+        final double cy = (height - 1) / 2.0;
+        // direction to the pixel (0, 0) without sample offset: -w * factorA - u * cx - v * cy
+        final double bx = -w.x * factorA - u.x * cx - v.x * cy;
+        final double by = -w.y * factorA - u.y * cx - v.y * cy;
+        final double bz = -w.z * factorA - u.z * cx - v.z * cy;
+
+        return new CameraFrame(width, height, samplingPattern, sampleSequence, sampleCount()) {
+            @Override
+            public void raysFor(final int x, final int y, final Ray[] rays) {
+                for (int i = 0; i < samplesPerPixel; i++) {
+                    final double fx = x + offsetX(x, y, i);
+                    final double fy = y + offsetY(x, y, i);
+                    rays[i] = new Ray(e, new Vector3(bx + u.x * fx + v.x * fy,
+                                                     by + u.y * fx + v.y * fy,
+                                                     bz + u.z * fx + v.z * fy));
+                }
+            }
+
+            @Override
+            public Ray rayFor(final int x, final int y, final int sample) {
+                final double fx = x + offsetX(x, y, sample);
+                final double fy = y + offsetY(x, y, sample);
+                return new Ray(e, new Vector3(bx + u.x * fx + v.x * fy,
+                                              by + u.y * fx + v.y * fy,
+                                              bz + u.z * fx + v.z * fy));
+            }
+        };
     }
 
     /**
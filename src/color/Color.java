@@ -13,21 +13,18 @@ public class Color implements Comparable<Color> {
     public final double g;
     public final double b;
 
-    public final int rgbIntVal;
-
     /**
-     * constructor creates an instance of color
+     * constructor creates an instance of color, the channels are not clamped so colors can hold
+     * high dynamic range radiance, they are clamped or tone mapped when they are written to an image
      *
      * @param r the value of red channel
      * @param g the value of green channel
      * @param b the value of blue channel
      */
     public Color(final double r, final double g, final double b) {
-
-        this.r = Math.max(0.0, Math.min(1.0, r));
-        this.g = Math.max(0.0, Math.min(1.0, g));
-        this.b = Math.max(0.0, Math.min(1.0, b));
-        this.rgbIntVal = getIntegerValofRGB(this.r, this.g, this.b);
+        this.r = r;
+        this.g = g;
+        this.b = b;
     }
 
     /**
@@ -38,23 +35,40 @@ public class Color implements Comparable<Color> {
         this.r = color.getRed() / 255.0;
         this.g = color.getGreen() / 255.0;
         this.b = color.getBlue() / 255.0;
-        this.rgbIntVal = color.getRGB();
     }
 
     /**
-     * calculates an int value from RGB values of a Color object
+     * packs the color clamped to [0, 1] into an int value
+     *
+     * @return int value of RGB
+     */
+    public int rgbIntVal() {
+        return getIntegerValofRGB(this.r, this.g, this.b);
+    }
+
+    /**
+     * calculates an int value from RGB values of a Color object, the channels are clamped to [0, 1]
      *
      * @param r red channel
      * @param g green channel
      * @param b blue channel
      * @return new int value of RGB
      */
-    public int getIntegerValofRGB(double r, double g, double b) {
-        return (0xff << 24 | (((int) (r * 255)) & 0xff) << 16 | (((int) (g * 255)) & 0xff) << 8 | (((int) (b * 255)) & 0xff));
+    public static int getIntegerValofRGB(double r, double g, double b) {
+        return 0xff << 24 | channel(r) << 16 | channel(g) << 8 | channel(b);
         //return (int)(256*256*r*255+256*g*255+b*255);
         //             Bits 23-16    Bits 15-8 Bits 7-0
     }
 
+    /**
+     * 8 bit value of a channel, clamping after the conversion to int is the same as clamping
+     * the double to [0, 1] before, but avoids the NaN checks of Math.min and Math.max
+     */
+    private static int channel(final double value) {
+        final int c = (int) (value * 255);
+        return c < 0 ? 0 : (c > 255 ? 255 : c);
+    }
+
     /**
      * add a Color object to the existing Color object
      *
@@ -2,11 +2,9 @@ package geometry;
 
 import material.Material;
 import mathlib.Normal3;
-import mathlib.Transform;
 import ray.Ray;
 import mathlib.Point3;
-
-import java.util.ArrayList;
+import texture.TexCoord2;
 
 /**
  * Class AxisAlignedBox represents an axis aligned box Geometry
@@ -22,18 +20,14 @@ public class AxisAlignedBox extends Geometry {
      */
     public final Point3 run;
 
-    private Node  right     ,
-                  top       ,
-                  front     ,
-                  left      ,
-                  bottom    ,
-                  back      ;
-    private Plane rightPl   ,
-                  topPl     ,
-                  frontPl   ,
-                  leftPl    ,
-                  bottomPl  ,
-                  backPl    ;
+    /**
+     * outward normals of the faces, in the order left, right, bottom, top, back, front
+     */
+    private static final Normal3[] FACE_NORMALS = {
+            new Normal3(-1,  0,  0), new Normal3( 1,  0,  0),
+            new Normal3( 0, -1,  0), new Normal3( 0,  1,  0),
+            new Normal3( 0,  0, -1), new Normal3( 0,  0,  1)
+    };
 
 
     /**
@@ -42,10 +36,7 @@ public class AxisAlignedBox extends Geometry {
      * @param material material of the box
      */
     public AxisAlignedBox(final Material material) {
-        super(material);
-        this.lbf = new Point3(-0.5, -0.5, -0.5);
-        this.run = new Point3(0.5, 0.5, 0.5);
-        this.addSides();
+        this(new Point3(-0.5, -0.5, -0.5), new Point3(0.5, 0.5, 0.5), material);
     }
 
     /**
@@ -59,38 +50,75 @@ public class AxisAlignedBox extends Geometry {
         super(material);
         this.lbf = lbf;
         this.run = run;
-        this.addPlanes();
     }
 
     /**
-     * Method initializes Sides (Plane-Style)
+     * Method intersects the ray with the three slabs between the opposite faces of the box.
+     * The ray is inside the box between the last slab it enters and the first slab it leaves,
+     * the hit face is the face of that slab. If the origin lies inside the box or nearer than
+     * EPSILON to the entry, the exit face is returned, as refracted rays need it.
+     * <p/>
+     * The distances are divided like in Plane, so they equal the hits of planes through the faces
+     * to the last bit, e.g. for a face lying in a plane of the scene.
+     *
+     * @param ray the Ray to intersect
+     * @return face of the closest intersection not nearer than EPSILON (index of FACE_NORMALS), -1 if there is none
      */
-    private void addPlanes() {
-        this.leftPl   = new Plane(this.lbf, new Normal3(-1,  0,  0), this.material); // left   side
-        this.rightPl  = new Plane(this.run, new Normal3( 1,  0,  0), this.material); // right  side
+    private int face(final Ray ray) {
+        double tNear = Double.NEGATIVE_INFINITY;
+        double tFar = Double.POSITIVE_INFINITY;
+        int near = -1;
+        int far = -1;
+
+        // a ray parallel to a slab gets infinite distances, the sign of the zero tells the side it enters from,
+        // comparisons with NaN (origin on a face) are ignored
+        final double x0 = (lbf.x - ray.o.x) / ray.d.x;
+        final double x1 = (run.x - ray.o.x) / ray.d.x;
+        if (Math.copySign(1.0, ray.d.x) > 0) {
+            if (x0 > tNear) { tNear = x0; near = 0; }
+            if (x1 < tFar) { tFar = x1; far = 1; }
+        } else {
+            if (x1 > tNear) { tNear = x1; near = 1; }
+            if (x0 < tFar) { tFar = x0; far = 0; }
+        }
+
+        final double y0 = (lbf.y - ray.o.y) / ray.d.y;
+        final double y1 = (run.y - ray.o.y) / ray.d.y;
+        if (Math.copySign(1.0, ray.d.y) > 0) {
+            if (y0 > tNear) { tNear = y0; near = 2; }
+            if (y1 < tFar) { tFar = y1; far = 3; }
+        } else {
+            if (y1 > tNear) { tNear = y1; near = 3; }
+            if (y0 < tFar) { tFar = y0; far = 2; }
+        }
 
-        this.bottomPl = new Plane(this.lbf, new Normal3( 0, -1,  0), this.material); // bottom side
-        this.topPl    = new Plane(this.run, new Normal3( 0,  1,  0), this.material); // top    side
+        final double z0 = (lbf.z - ray.o.z) / ray.d.z;
+        final double z1 = (run.z - ray.o.z) / ray.d.z;
+        if (Math.copySign(1.0, ray.d.z) > 0) {
+            if (z0 > tNear) { tNear = z0; near = 4; }
+            if (z1 < tFar) { tFar = z1; far = 5; }
+        } else {
+            if (z1 > tNear) { tNear = z1; near = 5; }
+            if (z0 < tFar) { tFar = z0; far = 4; }
+        }
 
-        this.frontPl  = new Plane(this.run, new Normal3( 0,  0,  1), this.material); // close  side
-        this.backPl   = new Plane(this.lbf, new Normal3( 0,  0, -1), this.material); // far    side
+        if (tNear > tFar) return -1;
+        if (tNear >= EPSILON) return near;
+        return tFar >= EPSILON ? far : -1;
     }
 
     /**
-     * Method initializes Sides (Node-Style)
+     * Method returns the distance along the ray to the plane of a face, computed like in face
      */
-    private void addSides() {
-        ArrayList<Geometry> geoList = new ArrayList<Geometry>();
-        geoList.add(new Plane(material));
-
-        left = new Node(geoList, new Transform().translate(this.lbf).rotateZ(Math.PI / 2));
-        right = new Node(geoList, new Transform().translate(this.run).rotateZ(-Math.PI / 2));
-
-        bottom =  new Node(geoList, new Transform().translate(this.lbf).rotateX(Math.PI));
-        top =  new Node(geoList, new Transform().translate(this.run));
-
-        front = new Node(geoList, new Transform().translate(this.run).rotateX(Math.PI / 2).rotateZ(Math.PI));
-        back = new Node(geoList, new Transform().translate(this.lbf).rotateX(-Math.PI / 2).rotateZ(Math.PI));
+    private double distance(final int face, final Ray ray) {
+        switch (face) {
+            case 0:  return (lbf.x - ray.o.x) / ray.d.x;
+            case 1:  return (run.x - ray.o.x) / ray.d.x;
+            case 2:  return (lbf.y - ray.o.y) / ray.d.y;
+            case 3:  return (run.y - ray.o.y) / ray.d.y;
+            case 4:  return (lbf.z - ray.o.z) / ray.d.z;
+            default: return (run.z - ray.o.z) / ray.d.z;
+        }
     }
 
     /**
@@ -101,47 +129,44 @@ public class AxisAlignedBox extends Geometry {
      */
     @Override
     public Hit hit(final Ray ray) {
-
-        final ArrayList<Hit> hits = new ArrayList<Hit>();
-        /**
-         * Adds Hits to Arrays // hereby it checks whether or not fields had been initialized
-         */
-        final Hit[] nodeHitsLR  = new Hit[] {( left  != null )?( left.hit(ray)  ):( leftPl.hit(ray)  ), ( right  !=null )?( right.hit(ray)  ):( rightPl.hit(ray)  )};
-        final Hit[] nodeHitsTBo = new Hit[] {( top   != null )?( top.hit(ray)   ):( topPl.hit(ray)   ), ( bottom !=null )?( bottom.hit(ray) ):( bottomPl.hit(ray) )};
-        final Hit[] nodeHitsFBa = new Hit[] {( front != null )?( front.hit(ray) ):( frontPl.hit(ray) ), ( back   !=null )?( back.hit(ray)   ):( backPl.hit(ray)   )};
-
-        for (Hit hit : nodeHitsLR) {
-            if (hit != null) {
-                Point3 p = ray.at(hit.t);
-                if (p.y >= lbf.y && p.y <= run.y && p.z >= lbf.z && p.z <= run.z) {
-                    hits.add(hit);
-                }
-            }
+        final int face = face(ray);
+        if (face < 0) return null;
+        final double t = distance(face, ray);
+        final Point3 p = ray.at(t);
+
+        // every face is textured in the plane it lies in, top and bottom like a Plane
+        final TexCoord2 texCoord;
+        if (face < 2) {
+            texCoord = new TexCoord2(p.z, p.y);
+        } else if (face < 4) {
+            texCoord = new TexCoord2(p.x, -p.z);
+        } else {
+            texCoord = new TexCoord2(p.x, p.y);
         }
-        for (Hit hit : nodeHitsTBo) {
-            if (hit != null) {
-                Point3 p = ray.at(hit.t);
-                if (p.x >= lbf.x && p.x <= run.x && p.z >= lbf.z && p.z <= run.z) {
-                    hits.add(hit);
-                }
-            }
-        }
-        for (Hit hit : nodeHitsFBa) {
-            if (hit != null) {
-                Point3 p = ray.at(hit.t);
-                if (p.x >= lbf.x && p.x <= run.x && p.y >= lbf.y && p.y <= run.y) {
-                    hits.add(hit);
-                }
-            }
-        }
-        Hit hit = null;
-        for (final Hit h : hits) {
-            if (hit == null || h.t < hit.t) {
-                hit = h;
-            }
-        }
-        return hit;
+        return new Hit(t, ray, this, FACE_NORMALS[face], texCoord);
+    }
+
+    /**
+     * Method checks whether the box blocks the ray before maxT, without creating a Hit
+     *
+     * @param ray  the Ray to test
+     * @param maxT distance along the ray up to which intersections count
+     * @return true if the box lies between origin and maxT
+     */
+    @Override
+    public boolean occludes(final Ray ray, final double maxT) {
+        final int face = face(ray);
+        return face >= 0 && distance(face, ray) < maxT;
+    }
 
+    /**
+     * Method returns the axis aligned box enclosing this AxisAlignedBox
+     *
+     * @return the bounding box of the box
+     */
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(lbf, run);
     }
 
     /**
@@ -154,12 +179,6 @@ public class AxisAlignedBox extends Geometry {
         return "AxisAlignedBox{" +
                 "lbf="      + lbf +
                 ", run="    + run +
-                ", right="  + ((right  !=null)?(right) :(rightPl))  +
-                ", top="    + ((top    !=null)?(top)   :(topPl))    +
-                ", front="  + ((front  !=null)?(front) :(frontPl))  +
-                ", left="   + ((left   !=null)?(left)  :(leftPl))   +
-                ", bottom=" + ((bottom !=null)?(bottom):(bottomPl)) +
-                ", back="   + ((back   !=null)?(back)  :(backPl))   +
                 '}';
     }
 
@@ -173,18 +192,6 @@ public class AxisAlignedBox extends Geometry {
         int result = super.hashCode();
         result = 31 * result + (lbf     != null ? lbf.hashCode()     : 0);
         result = 31 * result + (run     != null ? run.hashCode()     : 0);
-        result = 31 * result + (right   != null ? right.hashCode()   : 0);
-        result = 31 * result + (rightPl != null ? rightPl.hashCode() : 0);
-        result = 31 * result + (top     != null ? top.hashCode()     : 0);
-        result = 31 * result + (topPl   != null ? topPl.hashCode()   : 0);
-        result = 31 * result + (front   != null ? front.hashCode()   : 0);
-        result = 31 * result + (frontPl != null ? frontPl.hashCode() : 0);
-        result = 31 * result + (left    != null ? left.hashCode()    : 0);
-        result = 31 * result + (leftPl  != null ? leftPl.hashCode()  : 0);
-        result = 31 * result + (bottom  != null ? bottom.hashCode()  : 0);
-        result = 31 * result + (bottomPl!= null ? bottomPl.hashCode(): 0);
-        result = 31 * result + (back    != null ? back.hashCode()    : 0);
-        result = 31 * result + (backPl  != null ? backPl.hashCode()  : 0);
         return result;
     }
 
@@ -204,18 +211,6 @@ public class AxisAlignedBox extends Geometry {
 
         if (this.lbf      != null ? !lbf     .equals(that.lbf)      : that.lbf      != null) return false;
         if (this.run      != null ? !run     .equals(that.run)      : that.run      != null) return false;
-        if (this.back     != null ? !back    .equals(that.back)     : that.back     != null) return false;
-        if (this.backPl   != null ? !backPl  .equals(that.backPl)   : that.backPl   != null) return false;
-        if (this.bottom   != null ? !bottom  .equals(that.bottom)   : that.bottom   != null) return false;
-        if (this.bottomPl != null ? !bottomPl.equals(that.bottomPl) : that.bottomPl != null) return false;
-        if (this.front    != null ? !front   .equals(that.front)    : that.front    != null) return false;
-        if (this.frontPl  != null ? !frontPl .equals(that.frontPl)  : that.frontPl  != null) return false;
-        if (this.left     != null ? !left    .equals(that.left)     : that.left     != null) return false;
-        if (this.leftPl   != null ? !leftPl  .equals(that.leftPl)   : that.leftPl   != null) return false;
-        if (this.right    != null ? !right   .equals(that.right)    : that.right    != null) return false;
-        if (this.rightPl  != null ? !rightPl .equals(that.rightPl)  : that.rightPl  != null) return false;
-        if (this.top      != null ? !top     .equals(that.top)      : that.top      != null) return false;
-        if (this.topPl    != null ? !topPl   .equals(that.topPl)    : that.topPl    != null) return false;
 
         return true;
     }
@@ -234,16 +229,6 @@ public class AxisAlignedBox extends Geometry {
         if (!(this.material.equals(geo.material))) return super.compareTo(geo);
         if (!(this.lbf.equals(aab.lbf))) return this.lbf.compareTo(aab.lbf);
         if (!(this.run.equals(aab.run))) return this.run.compareTo(aab.run);
-        if ( (this.right    != null) && !(this.right.equals(aab.right)   )) return this.right.compareTo(aab.right);
-        if ( (this.rightPl  != null) && !(this.rightPl.equals(aab.rightPl) )) return this.rightPl.compareTo(aab.rightPl);
-        if ( (this.left     != null) && !(this.left.equals(aab.left)    )) return this.left.compareTo(aab.left);
-        if ( (this.leftPl   != null) && !(this.leftPl.equals(aab.leftPl)  )) return this.leftPl.compareTo(aab.leftPl);
-        if ( (this.bottom   != null) && !(this.bottom.equals(aab.bottom)  )) return this.bottom.compareTo(aab.bottom);
-        if ( (this.bottomPl != null) && !(this.bottomPl.equals(aab.bottomPl))) return this.bottomPl.compareTo(aab.bottomPl);
-        if ( (this.back     != null) && !(this.back.equals(aab.back)    )) return this.back.compareTo(aab.back);
-        if ( (this.backPl   != null) && !(this.backPl.equals(aab.backPl)  )) return this.backPl.compareTo(aab.backPl);
-        if ( (this.front    != null) && !(this.front.equals(aab.front)   )) return this.front.compareTo(aab.front);
-        if ( (this.frontPl  != null) && !(this.frontPl.equals(aab.frontPl) )) return this.frontPl.compareTo(aab.frontPl);
         return 0;
     }
-}
\ No newline at end of file
+}
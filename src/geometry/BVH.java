@@ -0,0 +1,266 @@
+package geometry;
+
+import mathlib.Point3;
+import ray.Ray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class represents a bounding volume hierarchy over a list of geometries.
+ * The tree is built once with binned surface area heuristic splits and stored
+ * in flat arrays. Rays traverse it front to back and skip every subtree whose box
+ * lies behind the closest hit found so far. Geometries with an infinite bounding box
+ * are kept aside and tested on every ray.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class BVH extends Geometry {
+
+    /**
+     * maximum number of geometries in a leaf, if splitting is still worth it
+     */
+    public static final int MAX_LEAF_SIZE = BVHTree.MAX_LEAF_SIZE;
+
+    /**
+     * geometries the hierarchy was built for
+     */
+    public final List<Geometry> geoList;
+
+    /**
+     * number of geometries in the hierarchy
+     */
+    public final int size;
+
+    /* bounded geometries, ordered as referenced by the leaves */
+    private final Geometry[] primitives;
+    /* geometries without a finite bounding box */
+    private final Geometry[] unbounded;
+
+    /* nodes of the hierarchy, the leaves reference primitives */
+    private final BVHTree tree;
+
+    /**
+     * Constructor for BVH, builds the hierarchy over the given geometries
+     *
+     * @param geoList list of geometries
+     */
+    public BVH(final List<Geometry> geoList) {
+        super(null);
+        this.geoList = geoList;
+        this.size = geoList.size();
+
+        final List<Geometry> bounded = new ArrayList<Geometry>();
+        final List<BoundingBox> boxes = new ArrayList<BoundingBox>();
+        final List<Geometry> others = new ArrayList<Geometry>();
+        for (Geometry geo : geoList) {
+            final BoundingBox box = geo.bounds();
+            if (box.isInfinite()) {
+                others.add(geo);
+            } else if (!box.isEmpty()) {
+                bounded.add(geo);
+                boxes.add(box);
+            }
+        }
+        this.unbounded = others.toArray(new Geometry[others.size()]);
+
+        final int n = bounded.size();
+        final double[] primBounds = new double[6 * n];
+        for (int i = 0; i < n; i++) {
+            final BoundingBox box = boxes.get(i);
+            primBounds[6 * i]     = box.lbf.x - EPSILON;
+            primBounds[6 * i + 1] = box.lbf.y - EPSILON;
+            primBounds[6 * i + 2] = box.lbf.z - EPSILON;
+            primBounds[6 * i + 3] = box.run.x + EPSILON;
+            primBounds[6 * i + 4] = box.run.y + EPSILON;
+            primBounds[6 * i + 5] = box.run.z + EPSILON;
+        }
+        this.tree = new BVHTree(primBounds, n);
+
+        final int[] order = tree.takeOrder();
+        this.primitives = new Geometry[n];
+        for (int i = 0; i < n; i++) {
+            primitives[i] = bounded.get(order[i]);
+        }
+    }
+
+    /**
+     * Method calculates the closest intersection of the ray with the geometries of the hierarchy
+     *
+     * @param ray the Ray to calculate the intersections with
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public Hit hit(final Ray ray) {
+        Hit closestHit = null;
+        double tMax = Double.POSITIVE_INFINITY;
+
+        for (Geometry geo : unbounded) {
+            final Hit hit = geo.hit(ray);
+            if (hit != null && hit.t < tMax) {
+                closestHit = hit;
+                tMax = hit.t;
+            }
+        }
+        if (primitives.length == 0) {
+            return closestHit;
+        }
+
+        final double ox = ray.o.x, oy = ray.o.y, oz = ray.o.z;
+        final double ix = 1.0 / ray.d.x, iy = 1.0 / ray.d.y, iz = 1.0 / ray.d.z;
+        final int[] stack = new int[tree.depth + 1];
+        int sp = 0;
+        int node = 0;
+
+        while (true) {
+            if (tree.intersects(node, ox, oy, oz, ix, iy, iz, tMax)) {
+                final int count = tree.nodeInfo[node] >>> 2;
+                if (count > 0) {
+                    final int first = tree.nodeOffset[node];
+                    for (int i = first; i < first + count; i++) {
+                        final Hit hit = primitives[i].hit(ray);
+                        if (hit != null && hit.t < tMax) {
+                            closestHit = hit;
+                            tMax = hit.t;
+                        }
+                    }
+                } else {
+                    // visit the child on the side of the ray origin first
+                    final int axis = tree.nodeInfo[node] & 3;
+                    final boolean negative = axis == 0 ? ix < 0 : (axis == 1 ? iy < 0 : iz < 0);
+                    if (negative) {
+                        stack[sp++] = node + 1;
+                        node = tree.nodeOffset[node];
+                    } else {
+                        stack[sp++] = tree.nodeOffset[node];
+                        node = node + 1;
+                    }
+                    continue;
+                }
+            }
+            if (sp == 0) break;
+            node = stack[--sp];
+        }
+        return closestHit;
+    }
+
+    /**
+     * Method checks whether any geometry of the hierarchy blocks the ray before maxT.
+     * The traversal stops at the first blocker instead of searching the closest hit.
+     *
+     * @param ray  the Ray to test
+     * @param maxT distance along the ray up to which intersections count
+     * @return true if a blocker has been found
+     */
+    @Override
+    public boolean occludes(final Ray ray, final double maxT) {
+        for (Geometry geo : unbounded) {
+            if (geo.occludes(ray, maxT)) return true;
+        }
+        if (primitives.length == 0) {
+            return false;
+        }
+
+        final double ox = ray.o.x, oy = ray.o.y, oz = ray.o.z;
+        final double ix = 1.0 / ray.d.x, iy = 1.0 / ray.d.y, iz = 1.0 / ray.d.z;
+        final int[] stack = new int[tree.depth + 1];
+        int sp = 0;
+        int node = 0;
+
+        while (true) {
+            if (tree.intersects(node, ox, oy, oz, ix, iy, iz, maxT)) {
+                final int count = tree.nodeInfo[node] >>> 2;
+                if (count > 0) {
+                    final int first = tree.nodeOffset[node];
+                    for (int i = first; i < first + count; i++) {
+                        if (primitives[i].occludes(ray, maxT)) return true;
+                    }
+                } else {
+                    stack[sp++] = tree.nodeOffset[node];
+                    node = node + 1;
+                    continue;
+                }
+            }
+            if (sp == 0) break;
+            node = stack[--sp];
+        }
+        return false;
+    }
+
+    /**
+     * Method returns the axis aligned box around all geometries of the hierarchy
+     *
+     * @return the bounding box of the BVH
+     */
+    @Override
+    public BoundingBox bounds() {
+        if (unbounded.length > 0) return BoundingBox.INFINITE;
+        if (primitives.length == 0) return BoundingBox.EMPTY;
+        return new BoundingBox(new Point3(tree.nodeBounds[0], tree.nodeBounds[1], tree.nodeBounds[2]),
+                               new Point3(tree.nodeBounds[3], tree.nodeBounds[4], tree.nodeBounds[5]));
+    }
+
+    /**
+     * Method returns the number of nodes of the hierarchy
+     *
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        return tree.nodeTotal;
+    }
+
+    /**
+     * shows the BVH as String
+     *
+     * @return a String with the size of the hierarchy
+     */
+    @Override
+    public String toString() {
+        return "BVH{" +
+                "geometries=" + geoList.size() +
+                ", unbounded=" + unbounded.length +
+                ", nodes=" + tree.nodeTotal +
+                ", depth=" + tree.depth +
+                '}';
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the BVH instance
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public int hashCode() {
+        return geoList.hashCode();
+    }
+
+    /**
+     * Overridden equals method: indicates whether the values of the given Object are the same or not
+     *
+     * @param o representing the Object to compare with
+     * @return boolean value of the result
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BVH)) return false;
+
+        BVH bvh = (BVH) o;
+        return this.geoList.equals(bvh.geoList);
+    }
+
+    /**
+     * Comparable Method for Interface Comparable
+     *
+     * @param geo incoming Geometry-Object
+     * @return int value ( 0 if all attributes are equal,
+     * -1 if one of the attributes is smaller than the corresponding attribute of the incoming object,
+     * 1 if one of the attributes is greater than the corresponding attribute of the incoming object)
+     */
+    @Override
+    public int compareTo(final Geometry geo) {
+        BVH bvh = (BVH) geo;
+        return Integer.compare(this.geoList.size(), bvh.geoList.size());
+    }
+}
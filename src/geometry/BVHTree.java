@@ -0,0 +1,308 @@
+package geometry;
+
+import java.util.Arrays;
+
+/**
+ * Class holds the nodes of a bounding volume hierarchy in flat arrays. It is built with
+ * binned surface area heuristic splits over the bounding boxes of arbitrary primitives,
+ * so the same tree serves the BVH over geometries and the TriangleMesh over its triangles.
+ * The leaves reference the primitives through the permutation order, which the owner takes once
+ * to sort its primitives (see takeOrder). The nodes are trimmed to the used ones after the build
+ * and store their boxes as floats, rounded outwards so no primitive sticks out of its box.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+final class BVHTree {
+
+    /**
+     * maximum number of primitives in a leaf, if splitting is still worth it
+     */
+    static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * leaves may grow up to this size, if the surface area heuristic rejects every split
+     */
+    private static final int MAX_SAH_LEAF_SIZE = 16;
+
+    /**
+     * number of bins for the surface area heuristic
+     */
+    private static final int BIN_COUNT = 16;
+
+    /**
+     * cost of a traversal step relative to one intersection test
+     */
+    private static final double TRAVERSAL_COST = 1.0;
+
+    /* six values per node: min x, y, z and max x, y, z */
+    final float[] nodeBounds;
+    /* inner node: index of the right child (left child is the next node), leaf: first position in order */
+    final int[] nodeOffset;
+    /* number of primitives << 2 | split axis, inner node: count 0 and the axis, leaf: the count and axis 0 */
+    final int[] nodeInfo;
+    /* deepest level of the tree, used to size the traversal stack */
+    final int depth;
+    /* number of used nodes */
+    final int nodeTotal;
+    /* primitives in the order referenced by the leaves, null once taken */
+    private int[] order;
+
+    /* temporary build state */
+    private double[] primBounds;
+    private double[] centroids;
+    private int[] index;
+    private double[] bounds;
+    private int[] offsets;
+    private int[] infos;
+    private int nodes;
+    private int maxDepth;
+
+    /**
+     * Constructor for BVHTree, builds the hierarchy over the given boxes
+     *
+     * @param primBounds six values per primitive: min x, y, z and max x, y, z
+     * @param n          number of primitives
+     */
+    BVHTree(final double[] primBounds, final int n) {
+        this.primBounds = primBounds;
+        this.centroids = new double[3 * n];
+        this.index = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < 3; k++) {
+                centroids[3 * i + k] = (primBounds[6 * i + k] + primBounds[6 * i + 3 + k]) * 0.5;
+            }
+            index[i] = i;
+        }
+
+        final int maxNodes = Math.max(0, 2 * n - 1);
+        this.bounds = new double[6 * maxNodes];
+        this.offsets = new int[maxNodes];
+        this.infos = new int[maxNodes];
+        if (n > 0) {
+            build(0, n, 1);
+        }
+        this.depth = maxDepth;
+        this.nodeTotal = nodes;
+        this.order = index;
+
+        // keep only the used nodes, the boxes rounded outwards to float
+        this.nodeBounds = new float[6 * nodes];
+        for (int i = 0; i < nodeBounds.length; i += 6) {
+            for (int k = 0; k < 3; k++) {
+                nodeBounds[i + k] = roundDown(bounds[i + k]);
+                nodeBounds[i + 3 + k] = roundUp(bounds[i + 3 + k]);
+            }
+        }
+        this.nodeOffset = Arrays.copyOf(offsets, nodes);
+        this.nodeInfo = Arrays.copyOf(infos, nodes);
+
+        this.primBounds = null;
+        this.centroids = null;
+        this.index = null;
+        this.bounds = null;
+        this.offsets = null;
+        this.infos = null;
+    }
+
+    /**
+     * Method hands the permutation of the primitives to the owner of the tree, which sorts its
+     * primitives into this order once. The tree keeps no reference to it.
+     *
+     * @return index of the primitive at every position referenced by the leaves
+     */
+    int[] takeOrder() {
+        final int[] taken = order;
+        if (taken == null) throw new IllegalStateException("The order has already been taken");
+        order = null;
+        return taken;
+    }
+
+    /**
+     * Method builds the subtree for the primitives between start and end
+     *
+     * @param start first primitive (inclusive)
+     * @param end   last primitive (exclusive)
+     * @param level depth of the new node
+     * @return index of the new node
+     */
+    private int build(final int start, final int end, final int level) {
+        final int node = nodes++;
+        maxDepth = Math.max(maxDepth, level);
+
+        // bounds of the primitives and of their centroids
+        final double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        final int b = 6 * node;
+        for (int k = 0; k < 3; k++) {
+            bounds[b + k] = Double.POSITIVE_INFINITY;
+            bounds[b + 3 + k] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = start; i < end; i++) {
+            final int p = index[i];
+            for (int k = 0; k < 3; k++) {
+                bounds[b + k] = Math.min(bounds[b + k], primBounds[6 * p + k]);
+                bounds[b + 3 + k] = Math.max(bounds[b + 3 + k], primBounds[6 * p + 3 + k]);
+                cMin[k] = Math.min(cMin[k], centroids[3 * p + k]);
+                cMax[k] = Math.max(cMax[k], centroids[3 * p + k]);
+            }
+        }
+
+        final int n = end - start;
+        if (n <= MAX_LEAF_SIZE) {
+            makeLeaf(node, start, n);
+            return node;
+        }
+
+        // binned surface area heuristic
+        final double parentArea = area(bounds, b);
+        final int[] counts = new int[BIN_COUNT];
+        final double[] bins = new double[6 * BIN_COUNT];
+        final double[] rightArea = new double[BIN_COUNT];
+        final int[] rightCount = new int[BIN_COUNT];
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBin = -1;
+
+        for (int axis = 0; axis < 3; axis++) {
+            final double extent = cMax[axis] - cMin[axis];
+            if (!(extent > 0)) continue;
+
+            Arrays.fill(counts, 0);
+            for (int j = 0; j < BIN_COUNT; j++) {
+                resetBox(bins, 6 * j);
+            }
+            for (int i = start; i < end; i++) {
+                final int p = index[i];
+                final int bin = binOf(centroids[3 * p + axis], cMin[axis], extent);
+                counts[bin]++;
+                growBox(bins, 6 * bin, primBounds, 6 * p);
+            }
+
+            // sweep from the right to collect the cost of every right side
+            final double[] acc = new double[6];
+            resetBox(acc, 0);
+            int count = 0;
+            for (int j = BIN_COUNT - 1; j > 0; j--) {
+                growBox(acc, 0, bins, 6 * j);
+                count += counts[j];
+                rightArea[j] = count > 0 ? area(acc, 0) : 0;
+                rightCount[j] = count;
+            }
+
+            // sweep from the left and evaluate each split plane
+            resetBox(acc, 0);
+            count = 0;
+            for (int j = 0; j < BIN_COUNT - 1; j++) {
+                growBox(acc, 0, bins, 6 * j);
+                count += counts[j];
+                if (count == 0 || rightCount[j + 1] == 0) continue;
+                final double cost = TRAVERSAL_COST
+                        + (area(acc, 0) * count + rightArea[j + 1] * rightCount[j + 1]) / parentArea;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = j;
+                }
+            }
+        }
+
+        // all centroids coincide or splitting is more expensive than testing everything
+        if (bestAxis == -1 || (bestCost >= n && n <= MAX_SAH_LEAF_SIZE)) {
+            makeLeaf(node, start, n);
+            return node;
+        }
+
+        // partition primitives along the chosen split plane
+        final double extent = cMax[bestAxis] - cMin[bestAxis];
+        int mid = start;
+        for (int i = start; i < end; i++) {
+            final int p = index[i];
+            if (binOf(centroids[3 * p + bestAxis], cMin[bestAxis], extent) <= bestBin) {
+                index[i] = index[mid];
+                index[mid] = p;
+                mid++;
+            }
+        }
+        if (mid == start || mid == end) {
+            mid = (start + end) / 2;
+        }
+
+        infos[node] = bestAxis;
+        build(start, mid, level + 1);
+        offsets[node] = build(mid, end, level + 1);
+        return node;
+    }
+
+    private void makeLeaf(final int node, final int start, final int n) {
+        offsets[node] = start;
+        infos[node] = n << 2;
+    }
+
+    private static int binOf(final double centroid, final double min, final double extent) {
+        final int bin = (int) ((centroid - min) * BIN_COUNT / extent);
+        return Math.max(0, Math.min(BIN_COUNT - 1, bin));
+    }
+
+    private static void resetBox(final double[] box, final int o) {
+        box[o] = box[o + 1] = box[o + 2] = Double.POSITIVE_INFINITY;
+        box[o + 3] = box[o + 4] = box[o + 5] = Double.NEGATIVE_INFINITY;
+    }
+
+    private static void growBox(final double[] box, final int o, final double[] other, final int p) {
+        for (int k = 0; k < 3; k++) {
+            box[o + k] = Math.min(box[o + k], other[p + k]);
+            box[o + 3 + k] = Math.max(box[o + 3 + k], other[p + 3 + k]);
+        }
+    }
+
+    private static float roundDown(final double value) {
+        final float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+
+    private static float roundUp(final double value) {
+        final float rounded = (float) value;
+        return rounded < value ? Math.nextUp(rounded) : rounded;
+    }
+
+    private static double area(final double[] box, final int o) {
+        final double dx = box[o + 3] - box[o];
+        final double dy = box[o + 4] - box[o + 1];
+        final double dz = box[o + 5] - box[o + 2];
+        return 2.0 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Method checks whether the ray passes the box of a node before tMax (slab test)
+     *
+     * @return true if the box is hit within the interval [0, tMax]
+     */
+    boolean intersects(final int node, final double ox, final double oy, final double oz,
+                       final double ix, final double iy, final double iz, final double tMax) {
+        final int b = 6 * node;
+        double tNear = 0;
+        double tFar = tMax;
+
+        double t0 = (nodeBounds[b] - ox) * ix;
+        double t1 = (nodeBounds[b + 3] - ox) * ix;
+        if (t0 > t1) { final double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        t0 = (nodeBounds[b + 1] - oy) * iy;
+        t1 = (nodeBounds[b + 4] - oy) * iy;
+        if (t0 > t1) { final double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        t0 = (nodeBounds[b + 2] - oz) * iz;
+        t1 = (nodeBounds[b + 5] - oz) * iz;
+        if (t0 > t1) { final double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        return tNear <= tFar;
+    }
+
+}
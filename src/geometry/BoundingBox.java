@@ -0,0 +1,204 @@
+package geometry;
+
+import mathlib.Mat4x4;
+import mathlib.Point3;
+
+/**
+ * Class represents an axis aligned bounding box in world space.
+ * It is used by acceleration structures to skip geometries a ray can not hit.
+ * Geometries without a finite extent (e.g. Plane) report the INFINITE box,
+ * geometries without any extent (e.g. an empty Node) report the EMPTY box.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class BoundingBox implements Comparable<BoundingBox> {
+
+    /**
+     * left bottom far point (minimum of all coordinates)
+     */
+    public final Point3 lbf;
+
+    /**
+     * right upper near point (maximum of all coordinates)
+     */
+    public final Point3 run;
+
+    /**
+     * box of unbounded geometries, it contains every point
+     */
+    public static final BoundingBox INFINITE = new BoundingBox(
+            new Point3(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY),
+            new Point3(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+    /**
+     * box of geometries without any extent, it contains no point and is neutral for union
+     */
+    public static final BoundingBox EMPTY = new BoundingBox(
+            new Point3(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
+            new Point3(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY),
+            false);
+
+    /**
+     * Constructor for BoundingBox, the coordinates of both points are sorted per axis
+     *
+     * @param p1 first corner of the box  (Point3)
+     * @param p2 second corner of the box (Point3)
+     */
+    public BoundingBox(final Point3 p1, final Point3 p2) {
+        this.lbf = new Point3(Math.min(p1.x, p2.x), Math.min(p1.y, p2.y), Math.min(p1.z, p2.z));
+        this.run = new Point3(Math.max(p1.x, p2.x), Math.max(p1.y, p2.y), Math.max(p1.z, p2.z));
+    }
+
+    /**
+     * private constructor takes both points as they are, used for the EMPTY box
+     *
+     * @param lbf    minimum corner (Point3)
+     * @param run    maximum corner (Point3)
+     * @param sorted marker to distinguish this constructor, the points are not sorted
+     */
+    private BoundingBox(final Point3 lbf, final Point3 run, final boolean sorted) {
+        this.lbf = lbf;
+        this.run = run;
+    }
+
+    /**
+     * Method checks whether the box reaches to infinity on any axis
+     *
+     * @return true if the box is unbounded
+     */
+    public boolean isInfinite() {
+        return Double.isInfinite(lbf.x) && lbf.x < 0
+            || Double.isInfinite(lbf.y) && lbf.y < 0
+            || Double.isInfinite(lbf.z) && lbf.z < 0
+            || Double.isInfinite(run.x) && run.x > 0
+            || Double.isInfinite(run.y) && run.y > 0
+            || Double.isInfinite(run.z) && run.z > 0;
+    }
+
+    /**
+     * Method checks whether the box contains no point at all
+     *
+     * @return true if the box is empty
+     */
+    public boolean isEmpty() {
+        return lbf.x > run.x || lbf.y > run.y || lbf.z > run.z;
+    }
+
+    /**
+     * Method creates the smallest box containing this box and the given box
+     *
+     * @param b box to be merged with this box
+     * @return new BoundingBox instance
+     */
+    public BoundingBox union(final BoundingBox b) {
+        if (this.isEmpty()) return b;
+        if (b.isEmpty()) return this;
+        return new BoundingBox(
+                new Point3(Math.min(lbf.x, b.lbf.x), Math.min(lbf.y, b.lbf.y), Math.min(lbf.z, b.lbf.z)),
+                new Point3(Math.max(run.x, b.run.x), Math.max(run.y, b.run.y), Math.max(run.z, b.run.z)));
+    }
+
+    /**
+     * Method transforms the box with the given matrix and returns the box around all eight transformed corners
+     *
+     * @param m transformation matrix (e.g. Transform.m of a Node)
+     * @return new BoundingBox instance
+     */
+    public BoundingBox transformed(final Mat4x4 m) {
+        if (this.isEmpty() || this.isInfinite()) return this;
+
+        BoundingBox box = EMPTY;
+        for (int i = 0; i < 8; i++) {
+            final Point3 corner = new Point3(
+                    (i & 1) == 0 ? lbf.x : run.x,
+                    (i & 2) == 0 ? lbf.y : run.y,
+                    (i & 4) == 0 ? lbf.z : run.z);
+            final Point3 p = m.mul(corner);
+            box = box.union(new BoundingBox(p, p));
+        }
+        return box;
+    }
+
+    /**
+     * Method calculates the surface area of the box, used by the surface area heuristic
+     *
+     * @return surface area of the box
+     */
+    public double surfaceArea() {
+        final double dx = run.x - lbf.x;
+        final double dy = run.y - lbf.y;
+        final double dz = run.z - lbf.z;
+        return 2.0 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Method returns the center of the box on the given axis
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return center coordinate
+     */
+    public double center(final int axis) {
+        switch (axis) {
+            case 0:  return (lbf.x + run.x) * 0.5;
+            case 1:  return (lbf.y + run.y) * 0.5;
+            default: return (lbf.z + run.z) * 0.5;
+        }
+    }
+
+    /**
+     * shows the BoundingBox as String
+     *
+     * @return a String with both corner points of the box
+     */
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "lbf=" + lbf +
+                ", run=" + run +
+                '}';
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the BoundingBox instance
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public int hashCode() {
+        int result = lbf.hashCode();
+        result = 31 * result + run.hashCode();
+        return result;
+    }
+
+    /**
+     * Overridden equals method: indicates whether the values of the given Object are the same or not
+     *
+     * @param o representing the Object to compare with
+     * @return boolean value of the result
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoundingBox)) return false;
+
+        BoundingBox box = (BoundingBox) o;
+        return this.lbf.equals(box.lbf) && this.run.equals(box.run);
+    }
+
+    /**
+     * Comparable Method for Interface Comparable
+     *
+     * @param box incoming BoundingBox-Object
+     * @return int value ( 0 if all attributes are equal,
+     * -1 if one of the attributes is smaller than the corresponding attribute of the incoming object,
+     * 1 if one of the attributes is greater than the corresponding attribute of the incoming object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(final BoundingBox box) {
+        if (!(this.lbf.equals(box.lbf))) return this.lbf.compareTo(box.lbf);
+        if (!(this.run.equals(box.run))) return this.run.compareTo(box.run);
+        return 0;
+    }
+}
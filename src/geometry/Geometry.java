@@ -35,6 +35,29 @@ public abstract class Geometry implements Comparable<Geometry>{
      */
     public abstract Hit hit(final Ray r);
 
+    /**
+     * Method checks whether the geometry blocks the ray before the distance maxT (shadow test).
+     * Unlike hit, it does not need the closest intersection, so composite geometries may stop
+     * at the first blocker they find.
+     *
+     * @param r    is the ray
+     * @param maxT distance along the ray up to which intersections count (e.g. distance to the light)
+     * @return true if there is an intersection with t smaller than maxT
+     */
+    public boolean occludes(final Ray r, final double maxT) {
+        final Hit hit = hit(r);
+        return hit != null && hit.t < maxT;
+    }
+
+    /**
+     * Method returns the axis aligned box enclosing the geometry in the coordinate system
+     * it is placed in (world space, or the space of the surrounding Node).
+     * Unbounded geometries return BoundingBox.INFINITE.
+     *
+     * @return the bounding box of the geometry
+     */
+    public abstract BoundingBox bounds();
+
 
     /**
      * Method builds an evenly distributed hash value for the Geometry
@@ -18,6 +18,13 @@ public class Hit implements Comparable<Hit>{
     public final Normal3 n;
     public final TexCoord2 texCoord2;
 
+    /**
+     * index of the hit primitive inside the geometry (e.g. the triangle of a TriangleMesh), -1 if the geometry has no parts.
+     * For a TriangleMesh it is the triangle in the hierarchy order of TriangleMesh.indices, which differs
+     * from the order of the indices passed to the constructor
+     */
+    public final int primitive;
+
     /**
      * constructor creates a hit between ray and geometry
      *
@@ -28,11 +35,26 @@ public class Hit implements Comparable<Hit>{
      * @param texCoord2 texture coordinates to calculate the intersection from (TexCoord2)
      */
     public Hit(final double t, final Ray ray, final Geometry geo, final Normal3 n, final TexCoord2 texCoord2) {
+        this(t, ray, geo, n, texCoord2, -1);
+    }
+
+    /**
+     * constructor creates a hit between ray and a primitive of a geometry
+     *
+     * @param t         the length where the ray intersects    (double)
+     * @param ray       ray to calculate the intersection from (Vector3)
+     * @param geo       geo to calculate the intersection from (Geometry)
+     * @param n         normal to calculate the intersection from (Normal)
+     * @param texCoord2 texture coordinates to calculate the intersection from (TexCoord2)
+     * @param primitive index of the hit primitive inside geo (int)
+     */
+    public Hit(final double t, final Ray ray, final Geometry geo, final Normal3 n, final TexCoord2 texCoord2, final int primitive) {
         this.t   = t;
         this.ray = ray;
         this.geo = geo;
         this.n = n;
         this.texCoord2 = texCoord2;
+        this.primitive = primitive;
     }
 
     /**
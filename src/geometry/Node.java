@@ -1,9 +1,12 @@
 package geometry;
 
-import material.Material;
+import mathlib.Mat4x4;
+import mathlib.Normal3;
 import mathlib.Transform;
+import mathlib.Vector3;
 import ray.Ray;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -18,6 +21,22 @@ public class Node extends Geometry {
     public final Transform transform;
     public final List<Geometry> geoList;
 
+    /**
+     * true if the Node is an instance of a hierarchy shared with other Nodes
+     */
+    public final boolean instance;
+
+    /**
+     * bottom level hierarchy over geoList, shared by all instances of the same subtree.
+     * A plain Node builds its own on the first hit and rebuilds it when geoList has changed in size.
+     */
+    private volatile BVH bvh;
+
+    /**
+     * bounds of an instance, calculated once since the shared hierarchy can not change
+     */
+    private final BoundingBox instanceBounds;
+
     /**
      * Constructor for Node
      *
@@ -28,35 +47,149 @@ public class Node extends Geometry {
         super(null);
         this.transform = transform;
         this.geoList = geoList;
+        this.instance = false;
+        this.instanceBounds = null;
     }
 
     /**
-     * Method is checking if there is a hit between transformed ray and the geometries of the list
+     * Constructor for an instance of a shared subtree. Many Nodes may reference the same BVH,
+     * the geometries and their hierarchy exist only once, every Node only adds its transformation.
+     *
+     * @param shared    hierarchy over the geometries of the subtree
+     * @param transform transformation object
+     */
+    public Node(final BVH shared, final Transform transform) {
+        super(null);
+        this.transform = transform;
+        this.geoList = shared.geoList;
+        this.instance = true;
+        this.bvh = shared;
+        this.instanceBounds = shared.bounds().transformed(transform.m);
+    }
+
+    /**
+     * Method creates one instance Node per transformation, all sharing one hierarchy over the given geometries
+     *
+     * @param geoList    geometries of the subtree
+     * @param transforms transformation of every instance
+     * @return list of new Node instances
+     */
+    public static List<Geometry> instances(final List<Geometry> geoList, final List<Transform> transforms) {
+        final BVH shared = new BVH(new ArrayList<Geometry>(geoList));
+        final List<Geometry> nodes = new ArrayList<Geometry>(transforms.size());
+        for (Transform transform : transforms) {
+            nodes.add(new Node(shared, transform));
+        }
+        return nodes;
+    }
+
+    /**
+     * Method returns the hierarchy of the children, null if the children are few enough to be tested one by one
+     *
+     * @return the current BVH or null
+     */
+    private BVH bvh() {
+        if (instance) return bvh;
+        if (geoList.size() <= BVH.MAX_LEAF_SIZE) return null;
+
+        BVH current = this.bvh;
+        if (current == null || current.size != geoList.size()) {
+            synchronized (this) {
+                current = this.bvh;
+                if (current == null || current.size != geoList.size()) {
+                    current = new BVH(new ArrayList<Geometry>(geoList));
+                    this.bvh = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Method is checking if there is a hit between transformed ray and the geometries of the list.
+     * The children intersect a normalized ray in object space, so their t is scaled back to the
+     * length of the world space ray before the Hit is returned.
      *
      * @param ray the Ray to calculate the intersections with this Plane
      * @return the intersections of Ray and this Plane (returns the closest intersection if there are more than one, null if there are none)
      */
     @Override
     public Hit hit(Ray ray) {
-        Ray transRay = transform.mul(ray);
+        final Vector3 transD = transform.i.mul(ray.d);
+        final Ray transRay = new Ray(transform.i.mul(ray.o), transD);
         Hit minimalHit = null;
-        Double hitDistance = Double.MAX_VALUE;
 
-        for (Geometry geo : geoList) {
-            Hit hit = geo.hit(transRay);
-            if (hit == null) continue;
-            if ((hit.t < hitDistance && hit.t > Geometry.EPSILON)) {
+        final BVH children = bvh();
+        if (children != null) {
+            minimalHit = children.hit(transRay);
+        } else {
+            double hitDistance = Double.MAX_VALUE;
+            for (Geometry geo : geoList) {
+                Hit hit = geo.hit(transRay);
+                if (hit == null) continue;
+                if ((hit.t < hitDistance && hit.t > Geometry.EPSILON)) {
                     hitDistance = hit.t;
                     minimalHit = hit;
-
+                }
             }
         }
-        if (minimalHit != null) {
-            return new Hit(minimalHit.t, ray, minimalHit.geo, transform.mul(minimalHit.n), minimalHit.texCoord2);
+        if (minimalHit != null && minimalHit.t > Geometry.EPSILON) {
+            // normals are transformed with the transposed inverse matrix
+            final Mat4x4 i = transform.i;
+            final Normal3 n = minimalHit.n;
+            final double nx = i.m11 * n.x + i.m21 * n.y + i.m31 * n.z;
+            final double ny = i.m12 * n.x + i.m22 * n.y + i.m32 * n.z;
+            final double nz = i.m13 * n.x + i.m23 * n.y + i.m33 * n.z;
+            final double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            return new Hit(minimalHit.t / transD.magnitude(), ray, minimalHit.geo,
+                    new Normal3(nx / length, ny / length, nz / length), minimalHit.texCoord2, minimalHit.primitive);
         }
         return null;
     }
 
+    /**
+     * Method checks whether any child blocks the transformed ray before maxT.
+     * maxT is scaled into object space, so no t has to be converted back.
+     *
+     * @param ray  the Ray to test
+     * @param maxT distance along the ray up to which intersections count
+     * @return true if the first blocker has been found
+     */
+    @Override
+    public boolean occludes(final Ray ray, final double maxT) {
+        final Vector3 transD = transform.i.mul(ray.d);
+        final Ray transRay = new Ray(transform.i.mul(ray.o), transD);
+        final double transMaxT = maxT * transD.magnitude();
+
+        final BVH children = bvh();
+        if (children != null) {
+            return children.occludes(transRay, transMaxT);
+        }
+        for (Geometry geo : geoList) {
+            if (geo.occludes(transRay, transMaxT)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method returns the axis aligned box around all children, transformed into the
+     * coordinate system of this Node. If one child is unbounded, the Node is unbounded too.
+     *
+     * @return the bounding box of the Node
+     */
+    @Override
+    public BoundingBox bounds() {
+        if (instance) return instanceBounds;
+
+        BoundingBox box = BoundingBox.EMPTY;
+        for (Geometry geo : geoList) {
+            final BoundingBox childBox = geo.bounds();
+            if (childBox.isInfinite()) return BoundingBox.INFINITE;
+            box = box.union(childBox);
+        }
+        return box.transformed(transform.m);
+    }
+
 
     /**
      * Comparable Method for Interface Comparable
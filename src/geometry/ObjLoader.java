@@ -0,0 +1,414 @@
+package geometry;
+
+import material.Material;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ObjLoader reads Wavefront OBJ files into a TriangleMesh.
+ * The file is memory mapped in chunks which are parsed in parallel, each chunk
+ * starts at the first line beginning inside it. Numbers are parsed directly from
+ * the mapped bytes into growing primitive arrays, no String is created per line or token.
+ * Supported are the statements v, vt, vn and f (with v, v/vt, v//vn and v/vt/vn references,
+ * negative references and polygons, which are split into triangle fans). All other
+ * statements are skipped.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class ObjLoader {
+
+    /**
+     * default number of bytes parsed by one task
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 32 << 20;
+
+    /**
+     * a line may reach this far beyond the end of its chunk
+     */
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    /**
+     * negative references (counted back from the current vertex) are stored as position in the chunk minus this value,
+     * positions may be negative if the reference points into an earlier chunk
+     */
+    private static final int RELATIVE = 1 << 30;
+
+    /**
+     * stored for a texture coordinate or normal a corner does not reference
+     */
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private ObjLoader() {
+    }
+
+    /**
+     * Method loads the given OBJ file with the default chunk size
+     *
+     * @param file     OBJ file
+     * @param material Material of the mesh
+     * @return new TriangleMesh instance
+     * @throws IOException if the file can not be read or is malformed
+     */
+    public static TriangleMesh load(final File file, final Material material) throws IOException {
+        return load(file, material, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Method loads the given OBJ file
+     *
+     * @param file      OBJ file
+     * @param material  Material of the mesh
+     * @param chunkSize number of bytes parsed by one task
+     * @return new TriangleMesh instance
+     * @throws IOException if the file can not be read or is malformed
+     */
+    public static TriangleMesh load(final File file, final Material material, final int chunkSize) throws IOException {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+
+        final List<Chunk> chunks = new ArrayList<Chunk>();
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final long size = channel.size();
+            final List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+            for (long start = 0; start < size; start += chunkSize) {
+                final long mapStart = start == 0 ? 0 : start - 1;
+                final long mapEnd = Math.min(size, start + chunkSize + MAX_LINE_LENGTH);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+                final int begin = (int) (start - mapStart);
+                final int end = (int) Math.min(start + chunkSize - mapStart, mapEnd - mapStart);
+                final long offset = mapStart;
+                tasks.add(new Callable<Chunk>() {
+                    @Override
+                    public Chunk call() throws IOException {
+                        final Chunk chunk = new Chunk(buffer, offset, mapEnd == size);
+                        chunk.parse(begin, end);
+                        return chunk;
+                    }
+                });
+            }
+            for (Future<Chunk> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                chunks.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading " + file + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Can't load " + file, e.getCause());
+        } finally {
+            raf.close();
+        }
+        return merge(chunks, material);
+    }
+
+    /**
+     * Method concatenates the chunks and resolves the references to global vertex numbers
+     */
+    private static TriangleMesh merge(final List<Chunk> chunks, final Material material) throws IOException {
+        int vCount = 0, vtCount = 0, vnCount = 0, indexCount = 0;
+        boolean allUvs = true, allNormals = true;
+        for (Chunk chunk : chunks) {
+            vCount += chunk.v.size / 3;
+            vtCount += chunk.vt.size / 2;
+            vnCount += chunk.vn.size / 3;
+            indexCount += chunk.f.size;
+            allUvs &= chunk.missingUvs == 0;
+            allNormals &= chunk.missingNormals == 0;
+        }
+        final boolean hasUvs = allUvs && vtCount > 0;
+        final boolean hasNormals = allNormals && vnCount > 0;
+
+        final float[] positions = new float[3 * vCount];
+        final float[] uvs = hasUvs ? new float[2 * vtCount] : null;
+        final float[] normals = hasNormals ? new float[3 * vnCount] : null;
+        final int[] indices = new int[indexCount];
+        final int[] uvIndices = hasUvs ? new int[indexCount] : null;
+        final int[] normalIndices = hasNormals ? new int[indexCount] : null;
+
+        int vOffset = 0, vtOffset = 0, vnOffset = 0, fOffset = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.v.data, 0, positions, 3 * vOffset, chunk.v.size);
+            if (hasUvs) System.arraycopy(chunk.vt.data, 0, uvs, 2 * vtOffset, chunk.vt.size);
+            if (hasNormals) System.arraycopy(chunk.vn.data, 0, normals, 3 * vnOffset, chunk.vn.size);
+
+            for (int i = 0; i < chunk.f.size; i++) {
+                indices[fOffset + i] = resolve(chunk.f.data[i], vOffset, vCount);
+                if (hasUvs) uvIndices[fOffset + i] = resolve(chunk.ft.data[i], vtOffset, vtCount);
+                if (hasNormals) normalIndices[fOffset + i] = resolve(chunk.fn.data[i], vnOffset, vnCount);
+            }
+            vOffset += chunk.v.size / 3;
+            vtOffset += chunk.vt.size / 2;
+            vnOffset += chunk.vn.size / 3;
+            fOffset += chunk.f.size;
+        }
+        return new TriangleMesh(positions, normals, uvs, indices, normalIndices, uvIndices, material);
+    }
+
+    /**
+     * Method turns a stored reference into a global index: values >= 0 are already global,
+     * negative values encode a position relative to the start of the chunk
+     */
+    private static int resolve(final int reference, final int chunkOffset, final int count) throws IOException {
+        final int index = reference >= 0 ? reference : chunkOffset + reference + RELATIVE;
+        if (index < 0 || index >= count) throw new IOException("Face references missing vertex " + (index + 1));
+        return index;
+    }
+
+    /**
+     * Growing float array
+     */
+    private static final class FloatList {
+        float[] data = new float[1024];
+        int size;
+
+        void add(final float value) {
+            if (size == data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[size++] = value;
+        }
+    }
+
+    /**
+     * Growing int array
+     */
+    private static final class IntList {
+        int[] data = new int[1024];
+        int size;
+
+        void add(final int value) {
+            if (size == data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[size++] = value;
+        }
+    }
+
+    /**
+     * Parser and result of one chunk of the file
+     */
+    private static final class Chunk {
+
+        private final MappedByteBuffer buffer;
+        private final long offset;
+        private final boolean reachesEnd;
+        private final int limit;
+        private int pos;
+
+        final FloatList v = new FloatList();
+        final FloatList vt = new FloatList();
+        final FloatList vn = new FloatList();
+        /* three references per triangle */
+        final IntList f = new IntList();
+        final IntList ft = new IntList();
+        final IntList fn = new IntList();
+        int missingUvs;
+        int missingNormals;
+
+        /* references of the current polygon: first and previous corner, and the corner being parsed */
+        private int firstV, firstT, firstN, prevV, prevT, prevN, curV, curT, curN;
+
+        Chunk(final MappedByteBuffer buffer, final long offset, final boolean reachesEnd) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.reachesEnd = reachesEnd;
+            this.limit = buffer.limit();
+        }
+
+        /**
+         * Method parses every line starting in [begin, end), begin is a line start if the byte before it is a newline
+         */
+        void parse(final int begin, final int end) throws IOException {
+            pos = begin;
+            if (begin > 0 && buffer.get(begin - 1) != '\n') {
+                skipLine();
+            }
+            while (pos < end && pos < limit) {
+                parseLine();
+            }
+        }
+
+        private void parseLine() throws IOException {
+            skipBlanks();
+            if (pos >= limit) return;
+            final byte c = buffer.get(pos);
+            final byte next = pos + 1 < limit ? buffer.get(pos + 1) : (byte) '\n';
+            if (c == 'v' && isBlank(next)) {
+                pos++;
+                v.add(parseFloat());
+                v.add(parseFloat());
+                v.add(parseFloat());
+            } else if (c == 'v' && next == 't') {
+                pos += 2;
+                vt.add(parseFloat());
+                vt.add(parseFloat());
+            } else if (c == 'v' && next == 'n') {
+                pos += 2;
+                vn.add(parseFloat());
+                vn.add(parseFloat());
+                vn.add(parseFloat());
+            } else if (c == 'f' && isBlank(next)) {
+                pos++;
+                parseFace();
+            }
+            skipLine();
+        }
+
+        private void parseFace() throws IOException {
+            int corners = 0;
+            while (true) {
+                skipBlanks();
+                if (pos >= limit || isLineEnd(buffer.get(pos))) break;
+                parseCorner();
+                if (corners == 0) {
+                    firstV = curV; firstT = curT; firstN = curN;
+                } else if (corners >= 2) {
+                    addTriangle();
+                }
+                prevV = curV; prevT = curT; prevN = curN;
+                corners++;
+            }
+            if (corners < 3) throw error("Face with less than three corners");
+        }
+
+        private void parseCorner() throws IOException {
+            curV = reference(parseInt(), v.size / 3);
+            curT = MISSING;
+            curN = MISSING;
+            if (pos < limit && buffer.get(pos) == '/') {
+                pos++;
+                if (pos < limit && buffer.get(pos) != '/') {
+                    curT = reference(parseInt(), vt.size / 2);
+                }
+                if (pos < limit && buffer.get(pos) == '/') {
+                    pos++;
+                    curN = reference(parseInt(), vn.size / 3);
+                }
+            }
+        }
+
+        private void addTriangle() {
+            f.add(firstV);
+            f.add(prevV);
+            f.add(curV);
+            if (firstT == MISSING || prevT == MISSING || curT == MISSING) {
+                missingUvs++;
+            }
+            ft.add(firstT);
+            ft.add(prevT);
+            ft.add(curT);
+            if (firstN == MISSING || prevN == MISSING || curN == MISSING) {
+                missingNormals++;
+            }
+            fn.add(firstN);
+            fn.add(prevN);
+            fn.add(curN);
+        }
+
+        /**
+         * Method stores absolute references as global index and relative references as position in the chunk minus RELATIVE
+         */
+        private int reference(final int value, final int countInChunk) throws IOException {
+            if (value > 0) return value - 1;
+            if (value < 0 && value > -RELATIVE) return countInChunk + value - RELATIVE;
+            throw error("Invalid reference " + value);
+        }
+
+        private int parseInt() throws IOException {
+            boolean negative = false;
+            if (pos < limit && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+                negative = buffer.get(pos) == '-';
+                pos++;
+            }
+            final int start = pos;
+            long value = 0;
+            while (pos < limit) {
+                final int digit = buffer.get(pos) - '0';
+                if (digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE) throw error("Number too large");
+                pos++;
+            }
+            if (pos == start) throw error("Number expected");
+            return (int) (negative ? -value : value);
+        }
+
+        private float parseFloat() throws IOException {
+            skipBlanks();
+            boolean negative = false;
+            if (pos < limit && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+                negative = buffer.get(pos) == '-';
+                pos++;
+            }
+            long mantissa = 0;
+            int exponent = 0;
+            int digits = 0;
+            boolean fraction = false;
+            while (pos < limit) {
+                final byte c = buffer.get(pos);
+                if (c >= '0' && c <= '9') {
+                    if (mantissa < 100000000000000000L) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (fraction) exponent--;
+                    } else if (!fraction) {
+                        exponent++;
+                    }
+                    digits++;
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            if (digits == 0) throw error("Number expected");
+            if (pos < limit && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+                pos++;
+                exponent += parseInt();
+            }
+
+            double value = mantissa;
+            if (exponent < 0) {
+                value = -exponent < POW10.length ? value / POW10[-exponent] : value / Math.pow(10, -exponent);
+            } else if (exponent > 0) {
+                value = exponent < POW10.length ? value * POW10[exponent] : value * Math.pow(10, exponent);
+            }
+            return (float) (negative ? -value : value);
+        }
+
+        private void skipBlanks() {
+            while (pos < limit && isBlank(buffer.get(pos))) pos++;
+        }
+
+        private void skipLine() throws IOException {
+            while (pos < limit && buffer.get(pos) != '\n') pos++;
+            if (pos >= limit && !reachesEnd) throw error("Line longer than " + MAX_LINE_LENGTH + " bytes");
+            pos++;
+        }
+
+        private static boolean isBlank(final byte c) {
+            return c == ' ' || c == '\t';
+        }
+
+        private static boolean isLineEnd(final byte c) {
+            return c == '\n' || c == '\r' || c == '#';
+        }
+
+        private IOException error(final String message) {
+            return new IOException(message + " at byte " + (offset + pos));
+        }
+    }
+}
@@ -50,16 +50,27 @@ public class Plane extends Geometry {
      */
     @Override
     public Hit hit(Ray ray) {
-        try {
-            double t = this.a.sub(ray.o).dot(this.n) / ray.d.dot(n);
-            if (t >= super.EPSILON) {
-                return new Hit(t, ray, this, n, new TexCoord2(ray.at(t).x, -(ray.at(t).z)));
-            }
-            return null;
-        } catch (ArithmeticException ae) {
-            // Division by zero ray located parallel to or onto this Plane
-            return null;
+        final double denominator = ray.d.x * n.x + ray.d.y * n.y + ray.d.z * n.z;
+        // Division by zero ray located parallel to or onto this Plane
+        if (denominator == 0) return null;
+
+        final double t = ((a.x - ray.o.x) * n.x + (a.y - ray.o.y) * n.y + (a.z - ray.o.z) * n.z) / denominator;
+        if (t >= super.EPSILON) {
+            final Point3 p = ray.at(t);
+            return new Hit(t, ray, this, n, new TexCoord2(p.x, -(p.z)));
         }
+        return null;
+    }
+
+    /**
+     * Method returns the axis aligned box enclosing this Plane.
+     * A plane has no finite extent, so it is flagged as unbounded.
+     *
+     * @return BoundingBox.INFINITE
+     */
+    @Override
+    public BoundingBox bounds() {
+        return BoundingBox.INFINITE;
     }
 
     /**
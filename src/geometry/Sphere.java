@@ -5,7 +5,6 @@ import ray.Ray;
 import texture.TexCoord2;
 import mathlib.Normal3;
 import mathlib.Point3;
-import mathlib.Vector3;
 
 /**
  * Class represents a 3-dimensional Sphere (ball)
@@ -50,10 +49,14 @@ public class Sphere extends Geometry {
      */
     @Override
     public final Hit hit(final Ray ray) {
-        double a = ray.d.dot(ray.d);
-        double b = ray.d.dot((ray.o.sub(this.c)).mul(2));
-        double cN = ((ray.o.sub(this.c)).dot(ray.o.sub(this.c))) - (Math.pow(r, 2));
-        double d = (Math.pow(b, 2)) - (4 * a * cN);
+        // o - c, the miss path works on primitives and allocates nothing
+        final double ocX = ray.o.x - this.c.x;
+        final double ocY = ray.o.y - this.c.y;
+        final double ocZ = ray.o.z - this.c.z;
+        double a = ray.d.x * ray.d.x + ray.d.y * ray.d.y + ray.d.z * ray.d.z;
+        double b = 2 * (ray.d.x * ocX + ray.d.y * ocY + ray.d.z * ocZ);
+        double cN = (ocX * ocX + ocY * ocY + ocZ * ocZ) - (r * r);
+        double d = (b * b) - (4 * a * cN);
 
         double t = super.EPSILON;
 
@@ -79,12 +82,27 @@ public class Sphere extends Geometry {
         }
 
         if (t > super.EPSILON) {
-            final Normal3 n = ray.at(t).sub(this.c).normalized().asNormal();
-            return new Hit(t, ray, this, n, getTexCoord(ray.at(t)));
+            final Point3 p = ray.at(t);
+            final double nx = p.x - this.c.x;
+            final double ny = p.y - this.c.y;
+            final double nz = p.z - this.c.z;
+            final double scale = 1 / Math.sqrt(nx * nx + ny * ny + nz * nz);
+            return new Hit(t, ray, this, new Normal3(nx * scale, ny * scale, nz * scale), getTexCoord(p));
         }
         return null;
     }
 
+    /**
+     * Method returns the axis aligned box enclosing this Sphere
+     *
+     * @return the bounding box of the Sphere
+     */
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(new Point3(c.x - r, c.y - r, c.z - r),
+                               new Point3(c.x + r, c.y + r, c.z + r));
+    }
+
     /**
      * calculate texture coordinates in 2D
      *
@@ -3,7 +3,6 @@ package geometry;
 import material.Material;
 import ray.Ray;
 import texture.TexCoord2;
-import mathlib.Mat3x3;
 import mathlib.Normal3;
 import mathlib.Point3;
 import mathlib.Vector3;
@@ -31,20 +30,59 @@ public class Triangle extends Geometry {
     public final TexCoord2 tC2b = new TexCoord2(0, 0);
     public final TexCoord2 tC2c = new TexCoord2(0, 0);
 
-    
+    /**
+     * true if the watertight intersection test is used, rays can not slip through edges shared with other triangles
+     */
+    public final boolean watertight;
+
+    /**
+     * edges b - a and c - a, calculated once for the intersection test
+     */
+    private final double e1x, e1y, e1z, e2x, e2y, e2z;
+
+    /**
+     * dot products of the edges, used for the barycentric coordinates of a hit point
+     */
+    private final double d11, d12, d22, invDenom;
+
     /**
      * Constructor for Sphere
      *
      * @param material Material of this Sphere
      */
     public Triangle(final Point3 a, final Point3 b, final Point3 c, final Material material) {
+        this(a, b, c, material, false);
+    }
+
+    /**
+     * Constructor for Triangle
+     *
+     * @param a          first corner
+     * @param b          second corner
+     * @param c          third corner
+     * @param material   Material of this Triangle
+     * @param watertight true for the watertight intersection test (for triangles of meshes sharing edges)
+     */
+    public Triangle(final Point3 a, final Point3 b, final Point3 c, final Material material, final boolean watertight) {
         super(material);
-        this.a  = a;;
+        this.a  = a;
         this.b  = b;
         this.c  = c;
         this.an = calcNormal(this.b, this.a, this.c);
         this.bn = calcNormal(this.a, this.b, this.c);
         this.cn = calcNormal(this.a, this.c, this.b);
+        this.watertight = watertight;
+
+        this.e1x = b.x - a.x;
+        this.e1y = b.y - a.y;
+        this.e1z = b.z - a.z;
+        this.e2x = c.x - a.x;
+        this.e2y = c.y - a.y;
+        this.e2z = c.z - a.z;
+        this.d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        this.d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        this.d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        this.invDenom = 1.0 / (d11 * d22 - d12 * d12);
     }
 
     /**
@@ -53,63 +91,177 @@ public class Triangle extends Geometry {
      * @param material Material of this Sphere         (Color)
      */
     public Triangle(final Material material) {
-        super(material);
-        this.a  = new Point3(0, 0, 0);;
-        this.b  = new Point3(0.6, 0, 0);
-        this.c  = new Point3(0, 0, 1);
-        this.an = calcNormal(this.b, this.a, this.c);
-        this.bn = calcNormal(this.a, this.b, this.c);
-        this.cn = calcNormal(this.a, this.c, this.b);
+        this(new Point3(0, 0, 0), new Point3(0.6, 0, 0), new Point3(0, 0, 1), material, false);
     }
 
     private Normal3 calcNormal(final Point3 p1, final Point3 p2, final Point3 p3){
-        return p1.sub(p2).x(p3.sub(p2)).mul(1 / (p1.sub(p2).x(p3.sub(p2))).magnitude).normalized().asNormal();
+        return p1.sub(p2).x(p3.sub(p2)).mul(1 / (p1.sub(p2).x(p3.sub(p2))).magnitude()).normalized().asNormal();
 
                //        p1         p2        p3         p3                p1         p2        p3         p2
-        //this.an = this.b.sub(this.a).x(this.c.sub(this.a)).mul(1 / (this.b.sub(this.a).x(this.c.sub(this.a))).magnitude).normalized().asNormal();
-        //this.bn = this.a.sub(this.b).x(this.c.sub(this.b)).mul(1 / (this.a.sub(this.b).x(this.c.sub(this.b))).magnitude).normalized().asNormal();
-        //this.cn = this.a.sub(this.c).x(this.b.sub(this.c)).mul(1 / (this.a.sub(this.c).x(this.b.sub(this.c))).magnitude).normalized().asNormal();
+        //this.an = this.b.sub(this.a).x(this.c.sub(this.a)).mul(1 / (this.b.sub(this.a).x(this.c.sub(this.a))).magnitude()).normalized().asNormal();
+        //this.bn = this.a.sub(this.b).x(this.c.sub(this.b)).mul(1 / (this.a.sub(this.b).x(this.c.sub(this.b))).magnitude()).normalized().asNormal();
+        //this.cn = this.a.sub(this.c).x(this.b.sub(this.c)).mul(1 / (this.a.sub(this.c).x(this.b.sub(this.c))).magnitude()).normalized().asNormal();
     }
 
     /**
      * Method returns a result of an intersection calculation with a Ray-instance
      *
-     * @param ray the Ray to calculate the intersections with this Sphere
-     * @return the intersections of Ray and this Sphere (returns the closest intersection if there are more than one, null if there are none)
+     * @param ray the Ray to calculate the intersections with this Triangle
+     * @return the intersection of Ray and this Triangle (null if there is none)
      */
     @Override
     public final Hit hit(final Ray ray) {
+        final double t = intersect(ray, Double.POSITIVE_INFINITY);
+        if (Double.isNaN(t)) return null;
+
+        // barycentric coordinates of the hit point, only calculated for hits
+        final double px = ray.o.x + ray.d.x * t - a.x;
+        final double py = ray.o.y + ray.d.y * t - a.y;
+        final double pz = ray.o.z + ray.d.z * t - a.z;
+        final double dp1 = px * e1x + py * e1y + pz * e1z;
+        final double dp2 = px * e2x + py * e2y + pz * e2z;
+        final double beta  = (d22 * dp1 - d12 * dp2) * invDenom;
+        final double gamma = (d11 * dp2 - d12 * dp1) * invDenom;
+        final double alpha = 1.0 - beta - gamma;
+
+        final TexCoord2 tCoord2 = tC2a.mul(alpha).add(tC2b.mul(beta)).add(tC2c.mul(gamma));
+        return new Hit(t, ray, this, an, tCoord2);
+    }
+
+    /**
+     * Method checks whether the Triangle blocks the Ray before maxT, without creating a Hit
+     *
+     * @param r    the shadow Ray
+     * @param maxT distance to the light
+     * @return true if the Ray hits the Triangle in [EPSILON, maxT)
+     */
+    @Override
+    public boolean occludes(final Ray r, final double maxT) {
+        return intersect(r, maxT) < maxT;
+    }
+
+    /**
+     * Method calculates the distance of the intersection with the selected test, no objects are created
+     *
+     * @param ray  the Ray to intersect
+     * @param tMax hits at or beyond this distance are ignored
+     * @return the distance t, NaN if there is no intersection in [EPSILON, tMax)
+     */
+    private double intersect(final Ray ray, final double tMax) {
+        return watertight ? intersectWatertight(ray, tMax) : intersectMoellerTrumbore(ray, tMax);
+    }
+
+    /**
+     * Moeller-Trumbore test: solves o + t * d = a + beta * e1 + gamma * e2 with Cramer's rule,
+     * the determinants are expressed as scalar triple products of the precomputed edges
+     */
+    private double intersectMoellerTrumbore(final Ray ray, final double tMax) {
+        final double dx = ray.d.x, dy = ray.d.y, dz = ray.d.z;
+
+        // p = d x e2
+        final double px = dy * e2z - dz * e2y;
+        final double py = dz * e2x - dx * e2z;
+        final double pz = dx * e2y - dy * e2x;
+
+        final double det = e1x * px + e1y * py + e1z * pz;
+        // ray located parallel to or onto this Triangle
+        if (det == 0.0) return Double.NaN;
+        final double invDet = 1.0 / det;
+
+        final double sx = ray.o.x - a.x, sy = ray.o.y - a.y, sz = ray.o.z - a.z;
+        final double beta = (sx * px + sy * py + sz * pz) * invDet;
+        if (beta < 0.0 || beta > 1.0) return Double.NaN;
+
+        // q = s x e1
+        final double qx = sy * e1z - sz * e1y;
+        final double qy = sz * e1x - sx * e1z;
+        final double qz = sx * e1y - sy * e1x;
+
+        final double gamma = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (gamma < 0.0 || beta + gamma > 1.0) return Double.NaN;
+
+        final double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        return t >= EPSILON && t < tMax ? t : Double.NaN;
+    }
+
+    /**
+     * watertight test (Woop, Benthin, Wald 2013): the corners are moved into a space where the ray runs
+     * along the z-axis, the edge functions are then evaluated in 2D exactly the same way for both
+     * triangles sharing an edge, so a ray hitting the edge is never missed by both
+     */
+    private double intersectWatertight(final Ray ray, final double tMax) {
+        final double adx = Math.abs(ray.d.x), ady = Math.abs(ray.d.y), adz = Math.abs(ray.d.z);
+
+        // dimension with the largest absolute direction becomes z, keep the winding by swapping x and y
+        final int kz = adx > ady ? (adx > adz ? 0 : 2) : (ady > adz ? 1 : 2);
+        int kx = kz == 2 ? 0 : kz + 1;
+        int ky = kx == 2 ? 0 : kx + 1;
+        final double dz = component(ray.d, kz);
+        if (dz < 0.0) {
+            final int swap = kx;
+            kx = ky;
+            ky = swap;
+        }
 
-        final Mat3x3 matA = new Mat3x3(
-                this.a.x - this.b.x, this.a.x - this.c.x, ray.d.x,
-                this.a.y - this.b.y, this.a.y - this.c.y, ray.d.y,
-                this.a.z - this.b.z, this.a.z - this.c.z, ray.d.z);
+        final double sx = component(ray.d, kx) / dz;
+        final double sy = component(ray.d, ky) / dz;
+        final double sz = 1.0 / dz;
 
-        final Vector3 vA = this.a.sub(ray.o);
+        // corners relative to the ray origin
+        final double ax = component(a, kx) - component(ray.o, kx), ay = component(a, ky) - component(ray.o, ky), az = component(a, kz) - component(ray.o, kz);
+        final double bx = component(b, kx) - component(ray.o, kx), by = component(b, ky) - component(ray.o, ky), bz = component(b, kz) - component(ray.o, kz);
+        final double cx = component(c, kx) - component(ray.o, kx), cy = component(c, ky) - component(ray.o, ky), cz = component(c, kz) - component(ray.o, kz);
 
-        if (matA.determinant == 0) {
-            return null;
+        // shear
+        final double asx = ax - sx * az, asy = ay - sy * az;
+        final double bsx = bx - sx * bz, bsy = by - sy * bz;
+        final double csx = cx - sx * cz, csy = cy - sy * cz;
+
+        // edge functions, u, v and w are the unnormalized weights of a, b and c
+        final double u = csx * bsy - csy * bsx;
+        final double v = asx * csy - asy * csx;
+        final double w = bsx * asy - bsy * asx;
+        if ((u < 0.0 || v < 0.0 || w < 0.0) && (u > 0.0 || v > 0.0 || w > 0.0)) return Double.NaN;
+
+        final double det = u + v + w;
+        if (det == 0.0) return Double.NaN;
+
+        final double t = (u * sz * az + v * sz * bz + w * sz * cz) / det;
+        return t >= EPSILON && t < tMax ? t : Double.NaN;
+    }
+
+    /**
+     * coordinate of a point on the given axis (0 for x, 1 for y, 2 for z)
+     */
+    private static double component(final Point3 p, final int axis) {
+        switch (axis) {
+            case 0:  return p.x;
+            case 1:  return p.y;
+            default: return p.z;
         }
+    }
 
-        try {
-            final double beta  = matA.changeCol1(vA).determinant / matA.determinant;
-            final double gamma = matA.changeCol2(vA).determinant / matA.determinant;
-            final double t     = matA.changeCol3(vA).determinant / matA.determinant;
-            final double alpha = 1.0 - beta - gamma;
-
-            // check all factors to be sure ray is hit
-            if (beta < 0.0 || gamma < 0.0 || beta + gamma > 1.0 || t < super.EPSILON) {
-                return null;
-            }
-            final TexCoord2 tCoord2 = tC2a.mul(alpha).add(tC2b).mul(beta).add(tC2c).mul(gamma);
-
-            return new Hit(t, ray, this, an, tCoord2);
-        } catch (ArithmeticException ae) {
-            // Division by zero ray located parallel to or onto this Plane
-            return null;
+    /**
+     * coordinate of a vector on the given axis (0 for x, 1 for y, 2 for z)
+     */
+    private static double component(final Vector3 v, final int axis) {
+        switch (axis) {
+            case 0:  return v.x;
+            case 1:  return v.y;
+            default: return v.z;
         }
     }
 
+    /**
+     * Method returns the axis aligned box enclosing this Triangle
+     *
+     * @return the bounding box of the Triangle
+     */
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(a, b).union(new BoundingBox(c, c));
+    }
+
     /**
      * shows the Plane as String
      *
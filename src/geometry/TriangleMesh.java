@@ -0,0 +1,403 @@
+package geometry;
+
+import material.Material;
+import mathlib.Normal3;
+import mathlib.Point3;
+import ray.Ray;
+import texture.TexCoord2;
+
+import java.util.Arrays;
+
+/**
+ * Class represents a mesh of triangles stored in primitive arrays.
+ * Positions, normals and texture coordinates are stored once per shared vertex,
+ * the triangles only reference them through index buffers. Normals and texture
+ * coordinates may have index buffers of their own (as in Wavefront OBJ files),
+ * otherwise the position indices are used for them as well.
+ * The triangles are sorted into the order of an internal bounding volume hierarchy,
+ * so triangles tested together also lie together in memory. Triangle numbers, e.g. in
+ * Hit.primitive, refer to this order of indices, not to the order passed to the constructor.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class TriangleMesh extends Geometry {
+
+    /**
+     * texture coordinate reported if the mesh has none
+     */
+    private static final TexCoord2 NO_TEX_COORD = new TexCoord2(0, 0);
+
+    /**
+     * x, y, z per vertex
+     */
+    public final float[] positions;
+
+    /**
+     * x, y, z per normal, null if the face normals are used
+     */
+    public final float[] normals;
+
+    /**
+     * u, v per texture coordinate, null if the mesh has no texture coordinates
+     */
+    public final float[] uvs;
+
+    /**
+     * three position indices per triangle, in the order of the hierarchy
+     */
+    public final int[] indices;
+
+    /**
+     * three normal indices per triangle, null if the position indices are used
+     */
+    public final int[] normalIndices;
+
+    /**
+     * three texture coordinate indices per triangle, null if the position indices are used
+     */
+    public final int[] uvIndices;
+
+    /**
+     * number of triangles
+     */
+    public final int triangleCount;
+
+    /* hierarchy over the triangles, its leaves reference triangle indices directly */
+    private final BVHTree tree;
+
+    /**
+     * Constructor for a mesh with face normals and without texture coordinates
+     *
+     * @param positions x, y, z per vertex
+     * @param indices   three position indices per triangle
+     * @param material  Material of the mesh
+     */
+    public TriangleMesh(final float[] positions, final int[] indices, final Material material) {
+        this(positions, null, null, indices, null, null, material);
+    }
+
+    /**
+     * Constructor for a mesh whose normals and texture coordinates are indexed like the positions
+     *
+     * @param positions x, y, z per vertex
+     * @param normals   x, y, z per vertex or null
+     * @param uvs       u, v per vertex or null
+     * @param indices   three vertex indices per triangle
+     * @param material  Material of the mesh
+     */
+    public TriangleMesh(final float[] positions, final float[] normals, final float[] uvs,
+                        final int[] indices, final Material material) {
+        this(positions, normals, uvs, indices, null, null, material);
+    }
+
+    /**
+     * Constructor for TriangleMesh
+     *
+     * @param positions     x, y, z per vertex
+     * @param normals       x, y, z per normal or null
+     * @param uvs           u, v per texture coordinate or null
+     * @param indices       three position indices per triangle
+     * @param normalIndices three normal indices per triangle or null
+     * @param uvIndices     three texture coordinate indices per triangle or null
+     * @param material      Material of the mesh
+     */
+    public TriangleMesh(final float[] positions, final float[] normals, final float[] uvs,
+                        final int[] indices, final int[] normalIndices, final int[] uvIndices,
+                        final Material material) {
+        super(material);
+        if (indices.length % 3 != 0) throw new IllegalArgumentException("indices must contain three entries per triangle");
+        if (normalIndices != null && normalIndices.length != indices.length) throw new IllegalArgumentException("normalIndices must match indices");
+        if (uvIndices != null && uvIndices.length != indices.length) throw new IllegalArgumentException("uvIndices must match indices");
+
+        this.positions = positions;
+        this.normals = normals;
+        this.uvs = uvs;
+        this.triangleCount = indices.length / 3;
+
+        final double[] primBounds = new double[6 * triangleCount];
+        for (int tri = 0; tri < triangleCount; tri++) {
+            final int b = 6 * tri;
+            primBounds[b] = primBounds[b + 1] = primBounds[b + 2] = Double.POSITIVE_INFINITY;
+            primBounds[b + 3] = primBounds[b + 4] = primBounds[b + 5] = Double.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < 3; corner++) {
+                final int v = 3 * indices[3 * tri + corner];
+                for (int k = 0; k < 3; k++) {
+                    primBounds[b + k] = Math.min(primBounds[b + k], positions[v + k] - EPSILON);
+                    primBounds[b + 3 + k] = Math.max(primBounds[b + 3 + k], positions[v + k] + EPSILON);
+                }
+            }
+        }
+        this.tree = new BVHTree(primBounds, triangleCount);
+
+        final int[] order = tree.takeOrder();
+        this.indices = reorder(indices, order);
+        this.normalIndices = normalIndices != null ? reorder(normalIndices, order) : null;
+        this.uvIndices = uvIndices != null ? reorder(uvIndices, order) : null;
+    }
+
+    /**
+     * Method copies the three entries per triangle into the given triangle order
+     */
+    private static int[] reorder(final int[] source, final int[] order) {
+        final int[] target = new int[source.length];
+        for (int i = 0; i < order.length; i++) {
+            System.arraycopy(source, 3 * order[i], target, 3 * i, 3);
+        }
+        return target;
+    }
+
+    /**
+     * Method returns the closest intersection of the Ray with the mesh.
+     * Only the final Hit is created, the search itself works on the arrays.
+     *
+     * @param ray the Ray to calculate the intersections with this mesh
+     * @return the closest intersection with the hit triangle as primitive, null if there is none
+     */
+    @Override
+    public Hit hit(final Ray ray) {
+        if (triangleCount == 0) return null;
+
+        final double ox = ray.o.x, oy = ray.o.y, oz = ray.o.z;
+        final double dx = ray.d.x, dy = ray.d.y, dz = ray.d.z;
+        final double ix = 1.0 / dx, iy = 1.0 / dy, iz = 1.0 / dz;
+        final int[] stack = new int[tree.depth + 1];
+        int sp = 0;
+        int node = 0;
+        double tMax = Double.POSITIVE_INFINITY;
+        int closest = -1;
+
+        while (true) {
+            if (tree.intersects(node, ox, oy, oz, ix, iy, iz, tMax)) {
+                final int count = tree.nodeInfo[node] >>> 2;
+                if (count > 0) {
+                    final int first = tree.nodeOffset[node];
+                    for (int tri = first; tri < first + count; tri++) {
+                        final double t = intersect(tri, ox, oy, oz, dx, dy, dz, tMax);
+                        if (!Double.isNaN(t)) {
+                            tMax = t;
+                            closest = tri;
+                        }
+                    }
+                } else {
+                    // visit the child on the side of the ray origin first
+                    final int axis = tree.nodeInfo[node] & 3;
+                    final boolean negative = axis == 0 ? ix < 0 : (axis == 1 ? iy < 0 : iz < 0);
+                    if (negative) {
+                        stack[sp++] = node + 1;
+                        node = tree.nodeOffset[node];
+                    } else {
+                        stack[sp++] = tree.nodeOffset[node];
+                        node = node + 1;
+                    }
+                    continue;
+                }
+            }
+            if (sp == 0) break;
+            node = stack[--sp];
+        }
+
+        if (closest < 0) return null;
+        return hitOf(closest, tMax, ray);
+    }
+
+    /**
+     * Method checks whether any triangle blocks the Ray before maxT, it stops at the first one found
+     *
+     * @param ray  the shadow Ray
+     * @param maxT distance to the light
+     * @return true if a triangle is hit in [EPSILON, maxT)
+     */
+    @Override
+    public boolean occludes(final Ray ray, final double maxT) {
+        if (triangleCount == 0) return false;
+
+        final double ox = ray.o.x, oy = ray.o.y, oz = ray.o.z;
+        final double dx = ray.d.x, dy = ray.d.y, dz = ray.d.z;
+        final double ix = 1.0 / dx, iy = 1.0 / dy, iz = 1.0 / dz;
+        final int[] stack = new int[tree.depth + 1];
+        int sp = 0;
+        int node = 0;
+
+        while (true) {
+            if (tree.intersects(node, ox, oy, oz, ix, iy, iz, maxT)) {
+                final int count = tree.nodeInfo[node] >>> 2;
+                if (count > 0) {
+                    final int first = tree.nodeOffset[node];
+                    for (int tri = first; tri < first + count; tri++) {
+                        if (intersect(tri, ox, oy, oz, dx, dy, dz, maxT) < maxT) return true;
+                    }
+                } else {
+                    stack[sp++] = tree.nodeOffset[node];
+                    node = node + 1;
+                    continue;
+                }
+            }
+            if (sp == 0) break;
+            node = stack[--sp];
+        }
+        return false;
+    }
+
+    /**
+     * Moeller-Trumbore test of one triangle, see Triangle
+     *
+     * @return the distance t, NaN if there is no intersection in [EPSILON, tMax)
+     */
+    private double intersect(final int tri, final double ox, final double oy, final double oz,
+                             final double dx, final double dy, final double dz, final double tMax) {
+        final int a = 3 * indices[3 * tri];
+        final int b = 3 * indices[3 * tri + 1];
+        final int c = 3 * indices[3 * tri + 2];
+        final double ax = positions[a], ay = positions[a + 1], az = positions[a + 2];
+        final double e1x = positions[b] - ax, e1y = positions[b + 1] - ay, e1z = positions[b + 2] - az;
+        final double e2x = positions[c] - ax, e2y = positions[c + 1] - ay, e2z = positions[c + 2] - az;
+
+        final double px = dy * e2z - dz * e2y;
+        final double py = dz * e2x - dx * e2z;
+        final double pz = dx * e2y - dy * e2x;
+        final double det = e1x * px + e1y * py + e1z * pz;
+        if (det == 0.0) return Double.NaN;
+        final double invDet = 1.0 / det;
+
+        final double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        final double beta = (sx * px + sy * py + sz * pz) * invDet;
+        if (beta < 0.0 || beta > 1.0) return Double.NaN;
+
+        final double qx = sy * e1z - sz * e1y;
+        final double qy = sz * e1x - sx * e1z;
+        final double qz = sx * e1y - sy * e1x;
+        final double gamma = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (gamma < 0.0 || beta + gamma > 1.0) return Double.NaN;
+
+        final double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        return t >= EPSILON && t < tMax ? t : Double.NaN;
+    }
+
+    /**
+     * Method creates the Hit for the closest triangle with interpolated normal and texture coordinate
+     */
+    private Hit hitOf(final int tri, final double t, final Ray ray) {
+        final int a = 3 * indices[3 * tri];
+        final int b = 3 * indices[3 * tri + 1];
+        final int c = 3 * indices[3 * tri + 2];
+        final double e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        final double e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+
+        // barycentric coordinates of the hit point
+        final double px = ray.o.x + ray.d.x * t - positions[a];
+        final double py = ray.o.y + ray.d.y * t - positions[a + 1];
+        final double pz = ray.o.z + ray.d.z * t - positions[a + 2];
+        final double d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        final double d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        final double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        final double dp1 = px * e1x + py * e1y + pz * e1z;
+        final double dp2 = px * e2x + py * e2y + pz * e2z;
+        final double invDenom = 1.0 / (d11 * d22 - d12 * d12);
+        final double beta  = (d22 * dp1 - d12 * dp2) * invDenom;
+        final double gamma = (d11 * dp2 - d12 * dp1) * invDenom;
+        final double alpha = 1.0 - beta - gamma;
+
+        double nx, ny, nz;
+        if (normals != null) {
+            final int[] ni = normalIndices != null ? normalIndices : indices;
+            final int na = 3 * ni[3 * tri], nb = 3 * ni[3 * tri + 1], nc = 3 * ni[3 * tri + 2];
+            nx = alpha * normals[na]     + beta * normals[nb]     + gamma * normals[nc];
+            ny = alpha * normals[na + 1] + beta * normals[nb + 1] + gamma * normals[nc + 1];
+            nz = alpha * normals[na + 2] + beta * normals[nb + 2] + gamma * normals[nc + 2];
+        } else {
+            // face normal e1 x e2, as calculated by Triangle
+            nx = e1y * e2z - e1z * e2y;
+            ny = e1z * e2x - e1x * e2z;
+            nz = e1x * e2y - e1y * e2x;
+        }
+        final double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+        TexCoord2 texCoord = NO_TEX_COORD;
+        if (uvs != null) {
+            final int[] ti = uvIndices != null ? uvIndices : indices;
+            final int ta = 2 * ti[3 * tri], tb = 2 * ti[3 * tri + 1], tc = 2 * ti[3 * tri + 2];
+            texCoord = new TexCoord2(alpha * uvs[ta]     + beta * uvs[tb]     + gamma * uvs[tc],
+                                     alpha * uvs[ta + 1] + beta * uvs[tb + 1] + gamma * uvs[tc + 1]);
+        }
+
+        return new Hit(t, ray, this, new Normal3(nx / length, ny / length, nz / length), texCoord, tri);
+    }
+
+    /**
+     * Method returns the axis aligned box enclosing all triangles
+     *
+     * @return the bounding box of the mesh, EMPTY if it has no triangles
+     */
+    @Override
+    public BoundingBox bounds() {
+        if (triangleCount == 0) return BoundingBox.EMPTY;
+        return new BoundingBox(new Point3(tree.nodeBounds[0], tree.nodeBounds[1], tree.nodeBounds[2]),
+                               new Point3(tree.nodeBounds[3], tree.nodeBounds[4], tree.nodeBounds[5]));
+    }
+
+    /**
+     * shows the TriangleMesh as String
+     *
+     * @return a String with the size of the mesh
+     */
+    @Override
+    public String toString() {
+        return "TriangleMesh{" +
+                "triangles=" + triangleCount +
+                ", vertices=" + positions.length / 3 +
+                ", normals=" + (normals != null ? normals.length / 3 : 0) +
+                ", uvs=" + (uvs != null ? uvs.length / 2 : 0) +
+                ", nodes=" + tree.nodeTotal +
+                '}';
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the TriangleMesh instance
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Arrays.hashCode(positions);
+        result = 31 * result + Arrays.hashCode(indices);
+        return result;
+    }
+
+    /**
+     * Overridden equals method: indicates whether the values of the given Object are the same or not
+     *
+     * @param o representing the Object to compare with
+     * @return boolean value of the result
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TriangleMesh)) return false;
+
+        TriangleMesh mesh = (TriangleMesh) o;
+        return super.equals(mesh)
+            && Arrays.equals(this.positions, mesh.positions)
+            && Arrays.equals(this.normals, mesh.normals)
+            && Arrays.equals(this.uvs, mesh.uvs)
+            && Arrays.equals(this.indices, mesh.indices)
+            && Arrays.equals(this.normalIndices, mesh.normalIndices)
+            && Arrays.equals(this.uvIndices, mesh.uvIndices);
+    }
+
+    /**
+     * Comparable Method for Interface Comparable
+     *
+     * @param geo incoming Geometry-Object
+     * @return int value ( 0 if all attributes are equal,
+     * -1 if one of the attributes is smaller than the corresponding attribute of the incoming object,
+     * 1 if one of the attributes is greater than the corresponding attribute of the incoming object)
+     */
+    @Override
+    public int compareTo(final Geometry geo) {
+        TriangleMesh mesh = (TriangleMesh) geo;
+        if (!(this.material.equals(geo.material))) return super.compareTo(geo);
+        return Integer.compare(this.triangleCount, mesh.triangleCount);
+    }
+}
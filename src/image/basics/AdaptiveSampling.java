@@ -0,0 +1,69 @@
+package image.basics;
+
+/**
+ * AdaptiveSampling configures how many samples the RayTracer takes for a pixel.
+ * Every pixel starts with minSamples, afterwards further samples are only taken
+ * while the standard error of the mean color, estimated from the variance of the
+ * samples so far, is above the threshold in any channel. Flat pixels stop early,
+ * noisy edges get up to maxSamples.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class AdaptiveSampling {
+
+    /**
+     * default threshold for the standard error, about one step of an 8 bit channel
+     */
+    public static final double DEFAULT_THRESHOLD = 1.0 / 255;
+
+    /**
+     * number of samples every pixel gets
+     */
+    public final int minSamples;
+
+    /**
+     * maximum number of samples of a pixel, limited by the samples the camera provides
+     */
+    public final int maxSamples;
+
+    /**
+     * standard error of the mean color (0 to 1) below which a pixel counts as converged
+     */
+    public final double threshold;
+
+    /**
+     * constructor for AdaptiveSampling
+     *
+     * @param minSamples number of samples every pixel gets, at least 2 to estimate a variance
+     * @param maxSamples maximum number of samples of a pixel
+     * @param threshold  standard error of the mean color below which a pixel counts as converged
+     */
+    public AdaptiveSampling(final int minSamples, final int maxSamples, final double threshold) {
+        if (minSamples < 2) throw new IllegalArgumentException("minSamples must be at least 2");
+        if (maxSamples < minSamples) throw new IllegalArgumentException("maxSamples must not be less than minSamples");
+        if (!(threshold >= 0)) throw new IllegalArgumentException("threshold must not be negative");
+        this.minSamples = minSamples;
+        this.maxSamples = maxSamples;
+        this.threshold = threshold;
+    }
+
+    /**
+     * constructor for AdaptiveSampling with the default threshold
+     *
+     * @param minSamples number of samples every pixel gets, at least 2 to estimate a variance
+     * @param maxSamples maximum number of samples of a pixel
+     */
+    public AdaptiveSampling(final int minSamples, final int maxSamples) {
+        this(minSamples, maxSamples, DEFAULT_THRESHOLD);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampling{" +
+                "minSamples=" + minSamples +
+                ", maxSamples=" + maxSamples +
+                ", threshold=" + threshold +
+                '}';
+    }
+}
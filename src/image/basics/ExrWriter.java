@@ -0,0 +1,270 @@
+package image.basics;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * ExrWriter streams the tiles of a rendering into a tiled OpenEXR file with uncompressed half float
+ * R, G and B channels, the linear radiance compositing tools expect.
+ * <p/>
+ * The tiles of the file have the size of the tiles of the TileScheduler. The line order is random,
+ * so every finished tile is appended to the file as soon as it arrives and only one tile is held
+ * in memory at a time. The offset table, which tells readers where each tile is, has a fixed size
+ * and is filled in when the writer is closed. A file missing any tile, e.g. because the rendering
+ * failed, gets no offset table and is deleted on close, so no incomplete file looks valid.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class ExrWriter implements IF_TileSink, Closeable {
+
+    private static final int MAGIC = 20000630;
+
+    /**
+     * version 2 with the flag for a single part tiled file
+     */
+    private static final int VERSION = 2 | 0x200;
+
+    private static final int PIXEL_TYPE_HALF = 1;
+    private static final int LINE_ORDER_RANDOM_Y = 2;
+
+    /**
+     * channel names in the alphabetical order of the file and the channel of the frame buffer they come from
+     */
+    private static final String[] CHANNELS = {"B", "G", "R"};
+    private static final int[] CHANNEL_OFFSETS = {2, 1, 0};
+
+    public final int width;
+    public final int height;
+    public final int tileSize;
+
+    private final int tilesX;
+    private final File path;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+
+    /**
+     * position of the offset table in the file
+     */
+    private final long tableStart;
+
+    /**
+     * position of every tile in the file, row by row
+     */
+    private final long[] offsets;
+
+    /**
+     * position where the next tile is appended
+     */
+    private long end;
+
+    /**
+     * number of tiles completely written
+     */
+    private int written;
+
+    /**
+     * constructor creates the file and writes the header
+     *
+     * @param file     target file
+     * @param width    width of the image
+     * @param height   height of the image
+     * @param tileSize edge length of the tiles, the tiles passed to tileFinished have to match them
+     * @throws IOException if the file can not be written
+     */
+    public ExrWriter(final File file, final int width, final int height, final int tileSize) throws IOException {
+        if (width <= 0 || height <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("The size and the tile size have to be positive!");
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        this.offsets = new long[this.tilesX * ((height + tileSize - 1) / tileSize)];
+        this.path = file;
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+
+        final ByteBuffer header = header();
+        this.tableStart = header.remaining();
+        write(header, 0);
+        this.end = this.tableStart + 8L * this.offsets.length;
+    }
+
+    /**
+     * appends the tile to the file
+     *
+     * @param tile   x, y, width and height of the tile in the image, y = 0 is the top row
+     * @param pixels unclamped radiance of the tile
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void tileFinished(final Rectangle tile, final FrameBuffer pixels) throws IOException {
+        if (tile.x % this.tileSize != 0 || tile.y % this.tileSize != 0
+                || tile.width != Math.min(this.tileSize, this.width - tile.x)
+                || tile.height != Math.min(this.tileSize, this.height - tile.y)) {
+            throw new IllegalArgumentException("The tile does not match the tiles of the file: " + tile);
+        }
+        final int dataSize = 2 * CHANNELS.length * tile.width * tile.height;
+        final ByteBuffer chunk = ByteBuffer.allocate(20 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        chunk.putInt(tile.x / this.tileSize).putInt(tile.y / this.tileSize).putInt(0).putInt(0).putInt(dataSize);
+        for (int y = 0; y < tile.height; y++) {
+            for (int c = 0; c < CHANNELS.length; c++) {
+                for (int i = pixels.index(0, y) + CHANNEL_OFFSETS[c], x = 0; x < tile.width; x++, i += 3) {
+                    chunk.putShort((short) toHalf(pixels.pixels[i]));
+                }
+            }
+        }
+        chunk.flip();
+
+        final long position;
+        synchronized (this) {
+            position = this.end;
+            this.end += chunk.remaining();
+            this.offsets[(tile.y / this.tileSize) * this.tilesX + tile.x / this.tileSize] = position;
+        }
+        write(chunk, position);
+        synchronized (this) {
+            this.written++;
+        }
+    }
+
+    /**
+     * writes the offset table and closes the file, an incomplete file is deleted instead
+     *
+     * @throws IOException if the file can not be written or not every tile has been written
+     */
+    @Override
+    public void close() throws IOException {
+        final int tiles;
+        synchronized (this) {
+            tiles = this.written;
+        }
+        if (tiles < this.offsets.length) {
+            this.file.close();
+            Files.deleteIfExists(this.path.toPath());
+            throw new IOException("Only " + tiles + " of " + this.offsets.length + " tiles were written, "
+                    + this.path + " has been deleted");
+        }
+        try {
+            final ByteBuffer table = ByteBuffer.allocate(8 * this.offsets.length).order(ByteOrder.LITTLE_ENDIAN);
+            synchronized (this) {
+                for (long offset : this.offsets) {
+                    table.putLong(offset);
+                }
+            }
+            table.flip();
+            write(table, this.tableStart);
+        } finally {
+            this.file.close();
+        }
+    }
+
+    /**
+     * converts a float to the bits of the nearest half float, rounding ties to even,
+     * values too large for a half become infinity
+     *
+     * @param value float value
+     * @return half float bits in the lower 16 bits
+     */
+    public static int toHalf(final float value) {
+        final int bits = Float.floatToIntBits(value);
+        final int sign = (bits >>> 16) & 0x8000;
+        final int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+
+        if (exponent == 0xFF - 127 + 15) {
+            // infinity stays infinity, NaN stays NaN
+            return sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0);
+        }
+        if (exponent >= 0x1F) {
+            return sign | 0x7C00;
+        }
+        if (exponent <= 0) {
+            // subnormal half, the implicit leading one becomes part of the mantissa
+            if (exponent < -10) {
+                return sign;
+            }
+            mantissa |= 0x800000;
+            final int shift = 14 - exponent;
+            final int half = mantissa >> shift;
+            final int rest = mantissa & ((1 << shift) - 1);
+            final int halfway = 1 << (shift - 1);
+            return sign | (rest > halfway || (rest == halfway && (half & 1) != 0) ? half + 1 : half);
+        }
+        final int half = sign | exponent << 10 | mantissa >> 13;
+        final int rest = mantissa & 0x1FFF;
+        // a carry out of the mantissa correctly increments the exponent
+        return rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0) ? half + 1 : half;
+    }
+
+    /**
+     * builds the magic number, the version and the header attributes
+     */
+    private ByteBuffer header() {
+        final ByteBuffer header = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+
+        int channelsSize = 1;
+        for (String name : CHANNELS) {
+            channelsSize += name.length() + 1 + 16;
+        }
+        attribute(header, "channels", "chlist", channelsSize);
+        for (String name : CHANNELS) {
+            string(header, name);
+            // pixel type, linear flag and reserved bytes, x and y sampling
+            header.putInt(PIXEL_TYPE_HALF).put((byte) 0).put((byte) 0).put((byte) 0).put((byte) 0).putInt(1).putInt(1);
+        }
+        header.put((byte) 0);
+
+        attribute(header, "compression", "compression", 1);
+        header.put((byte) 0);
+        attribute(header, "dataWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(this.width - 1).putInt(this.height - 1);
+        attribute(header, "displayWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(this.width - 1).putInt(this.height - 1);
+        attribute(header, "lineOrder", "lineOrder", 1);
+        header.put((byte) LINE_ORDER_RANDOM_Y);
+        attribute(header, "pixelAspectRatio", "float", 4);
+        header.putFloat(1);
+        attribute(header, "screenWindowCenter", "v2f", 8);
+        header.putFloat(0).putFloat(0);
+        attribute(header, "screenWindowWidth", "float", 4);
+        header.putFloat(1);
+        // one level, the size of the tiles
+        attribute(header, "tiles", "tiledesc", 9);
+        header.putInt(this.tileSize).putInt(this.tileSize).put((byte) 0);
+        header.put((byte) 0);
+
+        header.flip();
+        return header;
+    }
+
+    private static void attribute(final ByteBuffer header, final String name, final String type, final int size) {
+        string(header, name);
+        string(header, type);
+        header.putInt(size);
+    }
+
+    private static void string(final ByteBuffer header, final String value) {
+        header.put(value.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+    }
+
+    /**
+     * writes the whole buffer at the given position, positional writes of several threads do not interfere
+     */
+    private void write(final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+}
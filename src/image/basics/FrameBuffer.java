@@ -0,0 +1,129 @@
+package image.basics;
+
+import color.Color;
+
+/**
+ * FrameBuffer accumulates the unclamped radiance of an image in a float array, three channels per pixel.
+ * Values are neither clamped nor packed while rendering, a tone mapper maps them to displayable
+ * 8 bit values only when the buffer is written to an image (see rgb).
+ * <p/>
+ * Pixels are stored row by row from the top of the image like a BufferedImage. Tiles of the
+ * TileScheduler do not overlap, so the workers can write their pixels without locking.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class FrameBuffer {
+
+    public final int width;
+    public final int height;
+
+    /**
+     * red, green and blue of every pixel, row by row starting with the top row
+     */
+    public final float[] pixels;
+
+    /**
+     * constructor creates a black frame buffer
+     *
+     * @param width  width of the image in pixels
+     * @param height height of the image in pixels
+     */
+    public FrameBuffer(final int width, final int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("The size has to be positive!");
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = new float[3 * width * height];
+    }
+
+    /**
+     * position of the red channel of a pixel in pixels
+     *
+     * @param x column, 0 is left
+     * @param y row, 0 is the top
+     * @return index of the red channel, green and blue follow
+     */
+    public int index(final int x, final int y) {
+        return 3 * (y * this.width + x);
+    }
+
+    /**
+     * overwrites a pixel
+     *
+     * @param x column, 0 is left
+     * @param y row, 0 is the top
+     * @param r red radiance
+     * @param g green radiance
+     * @param b blue radiance
+     */
+    public void set(final int x, final int y, final double r, final double g, final double b) {
+        final int index = index(x, y);
+        this.pixels[index] = (float) r;
+        this.pixels[index + 1] = (float) g;
+        this.pixels[index + 2] = (float) b;
+    }
+
+    /**
+     * adds a color to a pixel
+     *
+     * @param x     column, 0 is left
+     * @param y     row, 0 is the top
+     * @param color added color
+     */
+    public void add(final int x, final int y, final Color color) {
+        final int index = index(x, y);
+        this.pixels[index] += (float) color.r;
+        this.pixels[index + 1] += (float) color.g;
+        this.pixels[index + 2] += (float) color.b;
+    }
+
+    /**
+     * tone maps a pixel and packs it into an int value
+     *
+     * @param x      column, 0 is left
+     * @param y      row, 0 is the top
+     * @param mapper tone mapping operator
+     * @param scale  factor applied before the tone mapping, e.g. 1 / samples for accumulated samples
+     * @return int value of RGB as used by BufferedImage.TYPE_INT_RGB
+     */
+    public int rgb(final int x, final int y, final IF_ToneMapper mapper, final double scale) {
+        final int index = index(x, y);
+        return Color.getIntegerValofRGB(mapper.map(this.pixels[index] * scale),
+                mapper.map(this.pixels[index + 1] * scale), mapper.map(this.pixels[index + 2] * scale));
+    }
+
+    /**
+     * tone maps the pixels of a rectangle and writes them packed into an int array of the size of the
+     * buffer, e.g. the DataBufferInt of a BufferedImage.TYPE_INT_RGB, each row of the rectangle is written
+     * as one contiguous run without any allocation
+     *
+     * @param rgb    target array with one int per pixel, row by row starting with the top row
+     * @param x      left column of the rectangle
+     * @param y      top row of the rectangle
+     * @param width  width of the rectangle
+     * @param height height of the rectangle
+     * @param mapper tone mapping operator
+     * @param scale  factor applied before the tone mapping, e.g. 1 / samples for accumulated samples
+     */
+    public void toRGB(final int[] rgb, final int x, final int y, final int width, final int height,
+                      final IF_ToneMapper mapper, final double scale) {
+        for (int row = y; row < y + height; row++) {
+            int index = index(x, row);
+            final int start = row * this.width + x;
+            for (int target = start; target < start + width; target++) {
+                rgb[target] = Color.getIntegerValofRGB(mapper.map(this.pixels[index] * scale),
+                        mapper.map(this.pixels[index + 1] * scale), mapper.map(this.pixels[index + 2] * scale));
+                index += 3;
+            }
+        }
+    }
+
+    /**
+     * sets all pixels to black
+     */
+    public void clear() {
+        java.util.Arrays.fill(this.pixels, 0F);
+    }
+}
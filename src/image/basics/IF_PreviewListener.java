@@ -0,0 +1,22 @@
+package image.basics;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An interface for receivers of the intermediate images of a progressive rendering
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public interface IF_PreviewListener {
+
+    /**
+     * called on the rendering thread after a sample pass, the image is overwritten by the next
+     * pass, so it has to be drawn or copied before the method returns
+     *
+     * @param image    the image with all samples rendered so far
+     * @param samples  number of samples per pixel in the image
+     * @param finished true for the last image of the rendering
+     */
+    public abstract void previewAvailable(BufferedImage image, int samples, boolean finished);
+}
@@ -0,0 +1,19 @@
+package image.basics;
+
+import java.awt.*;
+
+/**
+ * An interface for renderers that draw an image tile by tile, used by the TileScheduler
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public interface IF_TileRenderer {
+
+    /**
+     * renders all pixels of the given tile
+     *
+     * @param tile x, y, width and height of the tile in pixels
+     */
+    public abstract void renderTile(Rectangle tile);
+}
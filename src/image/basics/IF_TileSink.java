@@ -0,0 +1,24 @@
+package image.basics;
+
+import java.awt.*;
+import java.io.IOException;
+
+/**
+ * An interface for receivers of the finished tiles of a rendering, e.g. writers streaming
+ * the tiles to a file so the whole image never has to be held in memory
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public interface IF_TileSink {
+
+    /**
+     * called on a worker thread as soon as a tile is rendered, tiles arrive in any order and
+     * from several threads at once, they are the unsplit tiles of the grid of the TileScheduler
+     *
+     * @param tile   x, y, width and height of the tile in the image, y = 0 is the top row
+     * @param pixels unclamped radiance of the tile, pixel (0, 0) is the top left pixel of the tile
+     * @throws IOException if the tile can not be written
+     */
+    public abstract void tileFinished(Rectangle tile, FrameBuffer pixels) throws IOException;
+}
@@ -0,0 +1,19 @@
+package image.basics;
+
+/**
+ * An interface for tone mapping operators, which map the unbounded radiance of a high dynamic range
+ * FrameBuffer to the displayable range when it is written to an image
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public interface IF_ToneMapper {
+
+    /**
+     * maps one channel of a pixel
+     *
+     * @param value linear radiance, 0 or more
+     * @return displayable value between 0 and 1
+     */
+    public abstract double map(double value);
+}
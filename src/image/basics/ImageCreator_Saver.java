@@ -11,12 +11,14 @@ import java.awt.image.ColorModel;
 import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * ImageCreator_Saver is a class to create pictures with a centered diagonal red line
  * in the middle. It's possible to resize this picture and to save it if you want.
  * Image is painted in method paint(). The created image will be loaded in JFrame by
- * calling method createImage(). Saving is only allowed as a picture in PNG or JPG format.
+ * calling method createImage(). Saving is only allowed as a picture in PNG or JPG format,
+ * images of a RayTracer can also be saved with high dynamic range in EXR or PFM format.
  *
  * @author group raspi, CG1, Beuth-Hochschule
  * @version 1.0
@@ -24,9 +26,9 @@ import java.io.IOException;
 public final class ImageCreator_Saver extends Canvas implements ActionListener {
 
     /**
-     * panel attributes
+     * panel attributes, created in createImage so the class can be constructed on headless systems
      */
-    private final JFrame f = new JFrame();
+    private JFrame f;
 
     /**
      * image generator
@@ -46,6 +48,8 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
     private static final String SAVE_IMAGE = "SAVE_IMAGE";
     private static final String JPG = "jpg";
     private static final String PNG = "png";
+    private static final String EXR = "exr";
+    private static final String PFM = "pfm";
 
     public ImageCreator_Saver(IF_ImageGenerator imageGenerator) {
         this.imageGenerator = imageGenerator;
@@ -60,7 +64,10 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
     public void paint(final Graphics g) {
         super.paint(g);
 
-        this.image = imageGenerator.generateImage(this.getWidth(), this.getHeight());
+        // only render again if the canvas was resized, plain repaints reuse the last image
+        if (this.image == null || this.image.getWidth() != this.getWidth() || this.image.getHeight() != this.getHeight()) {
+            this.image = imageGenerator.generateImage(this.getWidth(), this.getHeight());
+        }
         g.drawImage(this.image, 0, 0, this);
     }
 
@@ -68,6 +75,7 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
      * Initialize JFrame parameter and menu
      */
     public void createImage() {
+        if (f == null) f = new JFrame();
         f.setJMenuBar(addJMenuBar());
 
         this.setSize(WIDTH, HEIGHT);
@@ -118,7 +126,7 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
      */
     public void saveImage() {
         final JFileChooser explorer = new JFileChooser();
-        final FileNameExtensionFilter imageFilter = new FileNameExtensionFilter("Images", JPG, PNG);
+        final FileNameExtensionFilter imageFilter = new FileNameExtensionFilter("Images", JPG, PNG, EXR, PFM);
 
         // set file filter
         explorer.setFileFilter(imageFilter);
@@ -139,8 +147,13 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
                     //write selected File
                     ImageIO.write(this.image, JPG, fileSaveIn);
                     fileSaveMSG = "File successful saved in: " + fileSaveIn.getAbsolutePath();
+                } else if ((fileSaveIn.getName().endsWith(EXR) || fileSaveIn.getName().endsWith(PFM))
+                        && this.imageGenerator instanceof RayTracer) {
+                    // the shown image is clamped, the radiance is rendered again in the background
+                    saveHdrImage((RayTracer) this.imageGenerator, fileSaveIn);
+                    return;
                 } else {
-                    fileSaveMSG = "Only JPG and PNG format is allowed";
+                    fileSaveMSG = "Only JPG and PNG format is allowed, EXR and PFM for ray traced images";
                 }
             } catch (IOException e) {
                 fileSaveMSG = "Can't save file";
@@ -153,4 +166,43 @@ public final class ImageCreator_Saver extends Canvas implements ActionListener {
         }
     }
 
+    /**
+     * Renders the radiance again and streams it to a high dynamic range file on a background thread,
+     * so the window stays responsive, the result is shown when the file is written
+     *
+     * @param rayTracer  ray tracer of the shown image
+     * @param fileSaveIn target file ending with .exr or .pfm
+     */
+    private void saveHdrImage(final RayTracer rayTracer, final File fileSaveIn) {
+        final int width = this.image.getWidth();
+        final int height = this.image.getHeight();
+
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                rayTracer.saveHdrImage(width, height, fileSaveIn);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                String fileSaveMSG;
+                try {
+                    get();
+                    fileSaveMSG = "File successful saved in: " + fileSaveIn.getAbsolutePath();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fileSaveMSG = "Can't save file";
+                } catch (ExecutionException e) {
+                    fileSaveMSG = "Can't save file";
+                    System.err.println(fileSaveMSG + " see error below:");
+                    System.err.print(e.getCause().getMessage());
+                }
+
+                // Popup save success or not message
+                JOptionPane.showMessageDialog(null, fileSaveMSG);
+            }
+        }.execute();
+    }
+
 }
@@ -0,0 +1,120 @@
+package image.basics;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * PfmWriter streams the tiles of a rendering into a Portable Float Map, the linear radiance
+ * of every pixel as three 32 bit floats. The file has fixed size rows stored from the bottom
+ * of the image to the top, so every row of a finished tile is written straight to its position
+ * and only one tile is held in memory at a time. A file missing any pixel, e.g. because the
+ * rendering failed, is deleted on close, so no incomplete file looks valid.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class PfmWriter implements IF_TileSink, Closeable {
+
+    public final int width;
+    public final int height;
+
+    private final File path;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+
+    /**
+     * size of the header in bytes, the pixels follow
+     */
+    private final int headerBytes;
+
+    /**
+     * number of pixels completely written
+     */
+    private long written;
+
+    /**
+     * constructor creates the file and writes the header
+     *
+     * @param file   target file
+     * @param width  width of the image
+     * @param height height of the image
+     * @throws IOException if the file can not be written
+     */
+    public PfmWriter(final File file, final int width, final int height) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("The size has to be positive!");
+        }
+        this.width = width;
+        this.height = height;
+        this.path = file;
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+
+        // a negative scale marks little endian floats
+        final byte[] header = ("PF\n" + width + " " + height + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII);
+        this.headerBytes = header.length;
+        write(ByteBuffer.wrap(header), 0);
+        this.file.setLength(this.headerBytes + 12L * width * height);
+    }
+
+    /**
+     * writes every row of the tile to its position in the file
+     *
+     * @param tile   x, y, width and height of the tile in the image, y = 0 is the top row
+     * @param pixels unclamped radiance of the tile
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void tileFinished(final Rectangle tile, final FrameBuffer pixels) throws IOException {
+        final ByteBuffer row = ByteBuffer.allocate(12 * tile.width).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < tile.height; y++) {
+            row.clear();
+            for (int i = pixels.index(0, y), end = i + 3 * tile.width; i < end; i++) {
+                row.putFloat(pixels.pixels[i]);
+            }
+            row.flip();
+            final int imageRow = tile.y + y;
+            write(row, this.headerBytes + 12L * ((long) (this.height - 1 - imageRow) * this.width + tile.x));
+        }
+        synchronized (this) {
+            this.written += (long) tile.width * tile.height;
+        }
+    }
+
+    /**
+     * closes the file, an incomplete file is deleted
+     *
+     * @throws IOException if the file can not be closed or not every pixel has been written
+     */
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+        final long pixels;
+        synchronized (this) {
+            pixels = this.written;
+        }
+        if (pixels < (long) this.width * this.height) {
+            Files.deleteIfExists(this.path.toPath());
+            throw new IOException("Only " + pixels + " of " + (long) this.width * this.height + " pixels were written, "
+                    + this.path + " has been deleted");
+        }
+    }
+
+    /**
+     * writes the whole buffer at the given position, positional writes of several threads do not interfere
+     */
+    private void write(final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+}
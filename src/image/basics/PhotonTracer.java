@@ -39,14 +39,25 @@ public class PhotonTracer extends Material {
 
     /**
      * Method returns color for current reflection.
-     * It delegates the hit and world to the rayFor method with a different method signature (addidtional Tracer instance with recursion depth)
+     * It delegates the hit and world to the rayFor method with a different method signature (additional Tracer instance)
      * @param hit   the hit with an object
      * @param world the world is needed to find the lights
      * @return the color of reflection
      */
     @Override
     public Color colorFor(Hit hit, World world) {
-        return colorFor(hit, world, new Tracer(world, 6));
+        return colorFor(hit, world, new Tracer(world));
+    }
+
+    /**
+     * Method returns color for current reflection, traced with the Tracer of the render task.
+     * @param hit    the hit of a primary ray
+     * @param tracer Tracer of the render task
+     * @return the color of reflection
+     */
+    @Override
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        return colorFor(hit, tracer.world, tracer);
     }
 
     /**
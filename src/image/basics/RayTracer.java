@@ -1,6 +1,7 @@
 package image.basics;
 
 import camera.Camera;
+import camera.CameraFrame;
 import geometry.Hit;
 import material.Tracer;
 import ray.Ray;
@@ -8,13 +9,13 @@ import world.World;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.WritableRaster;
-import java.util.*;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import javax.imageio.ImageIO;
 
 /**
  * RayTracer is the class to generate an image
@@ -27,7 +28,7 @@ import java.util.concurrent.TimeUnit;
 public final class RayTracer implements IF_ImageGenerator {
 
     /**
-     * ImageCreator_Saver to show and save image
+     * ImageCreator_Saver to show and save image, its window is only opened by createImage
      */
     public final ImageCreator_Saver imageCreator_saver;
     /**
@@ -44,6 +45,21 @@ public final class RayTracer implements IF_ImageGenerator {
      */
     public final int count_processors;
 
+    /**
+     * work-stealing tile scheduler, reused for every generated image
+     */
+    public final TileScheduler scheduler;
+
+    /**
+     * adaptive sampling of the pixels, null if every pixel gets all samples of the camera
+     */
+    public final AdaptiveSampling adaptiveSampling;
+
+    /**
+     * operator mapping the high dynamic range frame buffer to the generated images
+     */
+    public final IF_ToneMapper toneMapper;
+
     /**
      * constructor for RayTracer initiate all RayTracer attributes used for generate image
      *
@@ -55,6 +71,9 @@ public final class RayTracer implements IF_ImageGenerator {
         this.camera = camera;
         this.imageCreator_saver = new ImageCreator_Saver(this);
         this.count_processors = Runtime.getRuntime().availableProcessors();
+        this.scheduler = new TileScheduler(count_processors, TileScheduler.DEFAULT_TILE_SIZE, TileOrder.SPIRAL);
+        this.adaptiveSampling = null;
+        this.toneMapper = ToneMapping.CLAMP;
     }
 
     /**
@@ -69,6 +88,55 @@ public final class RayTracer implements IF_ImageGenerator {
         this.camera = camera;
         this.imageCreator_saver = new ImageCreator_Saver(this);
         this.count_processors = count_processors;
+        this.scheduler = new TileScheduler(count_processors, TileScheduler.DEFAULT_TILE_SIZE, TileOrder.SPIRAL);
+        this.adaptiveSampling = null;
+        this.toneMapper = ToneMapping.CLAMP;
+    }
+
+    /**
+     * constructor for RayTracer initiate all RayTracer attributes used for generate image
+     *
+     * @param world     big earth
+     * @param camera    type of camera view
+     * @param scheduler tile scheduler with configured pool size, tile size and tile order
+     */
+    public RayTracer(final World world, final Camera camera, final TileScheduler scheduler) {
+        this(world, camera, scheduler, null);
+    }
+
+    /**
+     * constructor for RayTracer initiate all RayTracer attributes used for generate image
+     *
+     * @param world            big earth
+     * @param camera           type of camera view
+     * @param scheduler        tile scheduler with configured pool size, tile size and tile order
+     * @param adaptiveSampling minimum, maximum and threshold of the samples per pixel, null for all samples of the camera
+     */
+    public RayTracer(final World world, final Camera camera, final TileScheduler scheduler, final AdaptiveSampling adaptiveSampling) {
+        this(world, camera, scheduler, adaptiveSampling, ToneMapping.CLAMP);
+    }
+
+    /**
+     * constructor for RayTracer initiate all RayTracer attributes used for generate image
+     *
+     * @param world            big earth
+     * @param camera           type of camera view
+     * @param scheduler        tile scheduler with configured pool size, tile size and tile order
+     * @param adaptiveSampling minimum, maximum and threshold of the samples per pixel, null for all samples of the camera
+     * @param toneMapper       operator mapping the radiance to the generated images
+     */
+    public RayTracer(final World world, final Camera camera, final TileScheduler scheduler,
+                     final AdaptiveSampling adaptiveSampling, final IF_ToneMapper toneMapper) {
+        if (toneMapper == null) {
+            throw new IllegalArgumentException("The tone mapper cannot be null!");
+        }
+        this.world = world;
+        this.camera = camera;
+        this.imageCreator_saver = new ImageCreator_Saver(this);
+        this.count_processors = scheduler.poolSize();
+        this.scheduler = scheduler;
+        this.adaptiveSampling = adaptiveSampling;
+        this.toneMapper = toneMapper;
     }
 
     /**
@@ -78,9 +146,58 @@ public final class RayTracer implements IF_ImageGenerator {
         imageCreator_saver.createImage();
     }
 
+    /**
+     * method saveImage renders the image without any window and writes it to the given file,
+     * the format is taken from the file extension (png or jpg, exr or pfm see saveHdrImage)
+     *
+     * @param width  width of generated image
+     * @param height height of generated image
+     * @param file   target file ending with .png, .jpg, .exr or .pfm
+     * @throws IOException if the file can not be written
+     */
+    public void saveImage(final int width, final int height, final File file) throws IOException {
+        final String name = file.getName().toLowerCase();
+        final String format;
+        if (name.endsWith(".png")) {
+            format = "png";
+        } else if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            format = "jpg";
+        } else if (name.endsWith(".exr") || name.endsWith(".pfm")) {
+            saveHdrImage(width, height, file);
+            return;
+        } else {
+            throw new IllegalArgumentException("Only JPG, PNG, EXR and PFM format is allowed: " + file.getName());
+        }
+        final BufferedImage image = generateImage(width, height);
+        if (!ImageIO.write(image, format, file)) throw new IOException("No writer for format " + format);
+    }
+
+    /**
+     * method writeImage renders the image without any window and writes it to the given stream,
+     * the stream is not closed
+     *
+     * @param width  width of generated image
+     * @param height height of generated image
+     * @param format informal image format name, e.g. png or jpg
+     * @param out    target stream
+     * @throws IOException if the stream can not be written
+     */
+    public void writeImage(final int width, final int height, final String format, final OutputStream out) throws IOException {
+        final BufferedImage image = generateImage(width, height);
+        if (!ImageIO.write(image, format, out)) throw new IOException("No writer for format " + format);
+    }
+
+    /**
+     * method shutdown stops the worker threads of the scheduler, no image can be generated afterwards
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
     /**
      * Generator method to create the image based on the hits in the world and the
-     * camera view.
+     * camera view. The image is rendered into a high dynamic range FrameBuffer, which
+     * is tone mapped into the image.
      *
      * @param width  width of generated image
      * @param height height of generated image
@@ -88,115 +205,330 @@ public final class RayTracer implements IF_ImageGenerator {
      */
     @Override
     public BufferedImage generateImage(final int width, final int height) {
-        // defines how many threads will be in thread pool depending on maximum of usable processors in system
-        final ExecutorService exec = Executors.newFixedThreadPool(this.count_processors);
-        final Collection<Rectangle> rasterCollection = this.getRasterCollection(width, height);
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        resolve(image, generateFrameBuffer(width, height), 1);
+        return image;
+    }
 
+    /**
+     * Generator method to render the unclamped radiance of every pixel, e.g. to write
+     * it to a high dynamic range file or to tone map it with several operators
+     *
+     * @param width  width of generated image
+     * @param height height of generated image
+     * @return the frame buffer with the color of every pixel
+     */
+    public FrameBuffer generateFrameBuffer(final int width, final int height) {
+        final FrameBuffer frameBuffer = new FrameBuffer(width, height);
+        // all constants of the camera projection are calculated once per image
+        final CameraFrame frame = camera.frame(width, height);
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        // get raster and color model for configuring raster pixel color
-        final WritableRaster raster = image.getRaster();
-        final ColorModel colorModel = image.getColorModel();
+        // render all tiles on the work-stealing pool, returns when the image is complete
+        scheduler.render(width, height, new IF_TileRenderer() {
+            @Override
+            public void renderTile(final Rectangle tile) {
+                if (adaptiveSampling != null) {
+                    renderPartialAdaptive(tile, frame, frameBuffer, 0, 0);
+                } else {
+                    renderPartial(tile, frame, frameBuffer, 0, 0);
+                }
+            }
+        });
+
+        return frameBuffer;
+    }
 
+    /**
+     * Generator method streaming the rendering tile by tile, every tile is rendered into its own
+     * FrameBuffer and handed to the sink as soon as it is finished, so the whole image is never
+     * held in memory. Returns when every tile has been passed to the sink.
+     *
+     * @param width  width of generated image
+     * @param height height of generated image
+     * @param sink   receiver of the finished tiles, called on the worker threads
+     * @throws IOException the first exception thrown by the sink
+     */
+    public void generateTiles(final int width, final int height, final IF_TileSink sink) throws IOException {
+        final CameraFrame frame = camera.frame(width, height);
 
-        // run all thread tasks
-        for (final Rectangle rectangle : rasterCollection) {
-            // take a thread out of executer thread pool and run new thread task
-            exec.execute(new Runnable() {
-                public void run() {
-                    renderPartial(rectangle, width, height, raster, colorModel);
+        try {
+            // the tiles of the scheduler are taken as tiles of the image with y = 0 at the top,
+            // they are not split so the sink gets the tiles of a regular grid
+            scheduler.render(width, height, new IF_TileRenderer() {
+                @Override
+                public void renderTile(final Rectangle tile) {
+                    final FrameBuffer pixels = new FrameBuffer(tile.width, tile.height);
+                    final Rectangle cameraTile = new Rectangle(tile.x, height - tile.y - tile.height, tile.width, tile.height);
+                    if (adaptiveSampling != null) {
+                        renderPartialAdaptive(cameraTile, frame, pixels, tile.x, tile.y);
+                    } else {
+                        renderPartial(cameraTile, frame, pixels, tile.x, tile.y);
+                    }
+                    try {
+                        sink.tileFinished(tile, pixels);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
                 }
-            });
+            }, false);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
         }
+    }
 
-        exec.shutdown();
+    /**
+     * method saveHdrImage streams the unclamped radiance of the image to a high dynamic range file,
+     * the format is taken from the file extension: a tiled half float OpenEXR file (exr) or a
+     * Portable Float Map (pfm)
+     *
+     * @param width  width of generated image
+     * @param height height of generated image
+     * @param file   target file ending with .exr or .pfm
+     * @throws IOException if the file can not be written
+     */
+    public void saveHdrImage(final int width, final int height, final File file) throws IOException {
+        final String name = file.getName().toLowerCase();
+        final Closeable writer;
+        if (name.endsWith(".exr")) {
+            writer = new ExrWriter(file, width, height, scheduler.tileSize);
+        } else if (name.endsWith(".pfm")) {
+            writer = new PfmWriter(file, width, height);
+        } else {
+            throw new IllegalArgumentException("Only EXR and PFM format is allowed: " + file.getName());
+        }
         try {
-            exec.awaitTermination(2000, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            System.err.println(e.getMessage());
+            generateTiles(width, height, (IF_TileSink) writer);
+        } catch (IOException | RuntimeException ex) {
+            // the writer deletes the incomplete file, the failure of the rendering is reported
+            try {
+                writer.close();
+            } catch (IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw ex;
         }
+        writer.close();
+    }
+
+    /**
+     * Progressive generator method, renders the image in passes of one sample per pixel into an
+     * accumulation buffer, so a noisy preview of the whole image is available after the first pass.
+     * The rendering stops when the sample budget is used or the time limit is reached, a pass that
+     * has been started before the time limit is finished.
+     *
+     * @param width         width of generated image
+     * @param height        height of generated image
+     * @param maxSamples    sample budget per pixel, at most the samples of the camera (0 for all of them)
+     * @param maxMillis     time limit in milliseconds (0 for no limit)
+     * @param previewMillis minimal time in milliseconds between two previews
+     * @param listener      receiver of the previews and the final image, may be null
+     * @return the image with all rendered samples
+     */
+    public BufferedImage generateProgressiveImage(final int width, final int height, final int maxSamples,
+                                                  final long maxMillis, final long previewMillis,
+                                                  final IF_PreviewListener listener) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final CameraFrame frame = camera.frame(width, height);
+        final int samplesPerPixel = frame.samplesPerPixel;
+        final int budget = (maxSamples > 0) ? Math.min(maxSamples, samplesPerPixel) : samplesPerPixel;
+        // sums of the colors of all samples of a pixel
+        final FrameBuffer sums = new FrameBuffer(width, height);
+        final int stride = sampleStride(samplesPerPixel);
 
-        // return generated image
+        final long start = System.nanoTime();
+        long lastPreview = start;
+        int samples = 0;
+        while (samples < budget) {
+            // consecutive passes take samples far apart from each other in the pattern
+            final int sample = (int) ((long) samples * stride % samplesPerPixel);
+            scheduler.render(width, height, new IF_TileRenderer() {
+                @Override
+                public void renderTile(final Rectangle tile) {
+                    renderPass(tile, frame, sample, sums);
+                }
+            });
+            samples++;
+
+            final long now = System.nanoTime();
+            if (samples == budget || (maxMillis > 0 && now - start >= maxMillis * 1000000L)) break;
+            if (listener != null && now - lastPreview >= previewMillis * 1000000L) {
+                resolve(image, sums, 1.0 / samples);
+                listener.previewAvailable(image, samples, false);
+                lastPreview = System.nanoTime();
+            }
+        }
+
+        resolve(image, sums, 1.0 / samples);
+        if (listener != null) listener.previewAvailable(image, samples, true);
         return image;
     }
 
+    /**
+     * Method returns the step between the samples of two passes, coprime to the number of samples
+     * so every sample is taken once, and close to the golden ratio of it so the samples of a regular
+     * pattern spread out. The samples of a SampleSequence are already spread out in their order.
+     *
+     * @param samplesPerPixel number of samples of the camera
+     * @return step in the sample index from one pass to the next
+     */
+    private int sampleStride(final int samplesPerPixel) {
+        if (camera.sampleSequence != null && camera.sampleSequence.size == samplesPerPixel) return 1;
+        int stride = Math.max(1, (int) Math.round(samplesPerPixel * 0.6180339887));
+        while (gcd(stride, samplesPerPixel) != 1) stride++;
+        return stride;
+    }
+
+    private static int gcd(final int a, final int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Render one sample of every pixel of the tile and add its color to the accumulation buffer
+     */
+    private void renderPass(final Rectangle rectangle, final CameraFrame frame, final int sample, final FrameBuffer sums) {
+        final color.Color bg = this.world.BACKGROUND_COLOR;
+        final Tracer tracer = new Tracer(this.world);
+        final int height = frame.height;
+
+        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                final Hit hit = this.world.hit(frame.rayFor(x, y, sample));
+                color.Color sampColor = bg;
+                if (hit != null) {
+                    final color.Color hitColor = this.colorFor(hit, tracer, x, y, sample);
+                    if (hitColor != null) {
+                        sampColor = bg.add(hitColor);
+                    }
+                }
+                sums.add(x, height - 1 - y, sampColor);
+            }
+        }
+    }
+
+    /**
+     * Tone maps the frame buffer into the image, the packed pixels are written straight into the
+     * int array backing the TYPE_INT_RGB image, so no pixel goes through the raster or the color model
+     *
+     * @param scale factor of the frame buffer values, 1 / samples for accumulated samples
+     */
+    private void resolve(final BufferedImage image, final FrameBuffer frameBuffer, final double scale) {
+        final int[] rgb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        scheduler.render(frameBuffer.width, frameBuffer.height, new IF_TileRenderer() {
+            @Override
+            public void renderTile(final Rectangle tile) {
+                frameBuffer.toRGB(rgb, tile.x, tile.y, tile.width, tile.height, toneMapper, scale);
+            }
+        });
+    }
+
     /**
      * Render partial of picture with raytracer
      * <p/>
-     * x and y of rectangle are start position defined and width and height of rectangle shows raster size
+     * x and y of rectangle are start position defined and width and height of rectangle shows tile size,
+     * the ray buffer is reused for every pixel of the tile, the colors are summed up unclamped
      */
-    private void renderPartial(final Rectangle rectangle, final int width, final int height, final WritableRaster raster, final ColorModel colorModel) {
-        // define black and red pixel color
-        final int bgColor = this.world.BACKGROUND_COLOR.rgbIntVal;
+    private void renderPartial(final Rectangle rectangle, final CameraFrame frame, final FrameBuffer frameBuffer,
+                               final int originX, final int originY) {
+        final color.Color bg = this.world.BACKGROUND_COLOR;
+        final int height = frame.height;
+        final Ray[] rays = new Ray[frame.samplesPerPixel];
+        final double sampleWeight = 1.0 / frame.samplesPerPixel;
+        // the recursion context is created once per tile and reused for all its rays
+        final Tracer tracer = new Tracer(this.world);
 
         // generate all pixel started on left top side and ends on the right bottom side
-        for (int x = rectangle.x; x <= rectangle.width - 1; x++) {
-            for (int y = rectangle.y; y <= rectangle.height - 1; y++) {
+        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
 
                 // get the ray for every pixel based on the camera view
-                List<Ray> rays = camera.rayFor(width, height, x, y);
-                color.Color sampColor = this.world.BACKGROUND_COLOR;
-                
-                for (Ray ray : rays) {
+                frame.raysFor(x, y, rays);
+                double r = 0, g = 0, b = 0;
+
+                for (int i = 0; i < rays.length; i++) {
                     // get the shortest hit of the world with method hit
-                    Hit hit = this.world.hit(ray);
-                    
+                    final Hit hit = this.world.hit(rays[i]);
+
                     if (hit != null) {
-                        final color.Color hitColor = this.colorFor(hit, this.world);
+                        final color.Color hitColor = this.colorFor(hit, tracer, x, y, i);
                         if (hitColor != null) {
-                            sampColor = sampColor.add(hitColor.mul(1F / rays.size()));
+                            r += hitColor.r;
+                            g += hitColor.g;
+                            b += hitColor.b;
                         }
                     }
                 }
 
-                // if any geometric object is hit, paint color of object, else paint color of background
-                if (sampColor != null) {
-                    raster.setDataElements(x, height - 1 - y, colorModel.getDataElements(sampColor.rgbIntVal, null));
-                } else {
-                    raster.setDataElements(x, height - 1 - y, colorModel.getDataElements(bgColor, null));
-                }
+                // pixels without any hit get the color of the background
+                frameBuffer.set(x - originX, height - 1 - y - originY,
+                        bg.r + r * sampleWeight, bg.g + g * sampleWeight, bg.b + b * sampleWeight);
             }
         }
     }
 
-    private color.Color colorFor(Hit hit, World world){
-        return hit.geo.material.colorFor(hit, world);
-    }
-
     /**
-     * set collection of picture partials for picture raster with width and height as rectangles
-     *
-     * @param fullWidth     image width
-     * @param fullHeight    image height
-     * @return collection of rectangles
-     */
-    private Collection<Rectangle> getRasterCollection(final int fullWidth, final int fullHeight) {
-
-        final int parts = 10;
-        final int restOfWidth = fullWidth % parts;
-        final int restOfHeight = fullHeight % parts;
-        final int widthPartMax = fullWidth - restOfWidth;
-        final int heightPartMax = fullHeight - restOfHeight;
-
-        java.util.List<Rectangle> listOfRectangles = new ArrayList<Rectangle>();
-
-        for (int x = 0; x <= widthPartMax; x += parts) {
-            for (int y = 0; y <= heightPartMax; y += parts) {
-                Rectangle rectangle;
-                if (x == widthPartMax && y == heightPartMax) {
-                    rectangle = new Rectangle(x, y, x + restOfWidth, y + restOfHeight);
-                } else if (x == widthPartMax) {
-                    rectangle = new Rectangle(x, y, x + restOfWidth, y + parts);
-                } else if (y == heightPartMax) {
-                    rectangle = new Rectangle(x, y, x + parts, y + restOfHeight);
-                } else {
-                    rectangle = new Rectangle(x, y, x + parts, y + parts);
+     * Render partial of picture with adaptive sampling
+     * <p/>
+     * Samples are taken in the same spread out order as the passes of the progressive rendering.
+     * The running mean and variance of every channel are updated with Welford's method, so no
+     * sample has to be stored, and sampling stops as soon as the pixel has converged.
+     */
+    private void renderPartialAdaptive(final Rectangle rectangle, final CameraFrame frame, final FrameBuffer frameBuffer,
+                                       final int originX, final int originY) {
+        final color.Color bg = this.world.BACKGROUND_COLOR;
+        final int height = frame.height;
+        final int samplesPerPixel = frame.samplesPerPixel;
+        final int maxSamples = Math.min(adaptiveSampling.maxSamples, samplesPerPixel);
+        final int minSamples = Math.min(adaptiveSampling.minSamples, maxSamples);
+        // the squared standard error is compared, variance / n > threshold^2
+        final double threshold2 = adaptiveSampling.threshold * adaptiveSampling.threshold;
+        final int stride = sampleStride(samplesPerPixel);
+        final Tracer tracer = new Tracer(this.world);
+
+        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                double meanR = 0, meanG = 0, meanB = 0;
+                double m2R = 0, m2G = 0, m2B = 0;
+                int n = 0;
+
+                while (n < maxSamples) {
+                    final int sample = (int) ((long) n * stride % samplesPerPixel);
+                    final Hit hit = this.world.hit(frame.rayFor(x, y, sample));
+                    double r = 0, g = 0, b = 0;
+                    if (hit != null) {
+                        final color.Color hitColor = this.colorFor(hit, tracer, x, y, sample);
+                        if (hitColor != null) {
+                            r = hitColor.r;
+                            g = hitColor.g;
+                            b = hitColor.b;
+                        }
+                    }
+                    n++;
+                    final double dR = r - meanR, dG = g - meanG, dB = b - meanB;
+                    meanR += dR / n;
+                    meanG += dG / n;
+                    meanB += dB / n;
+                    m2R += dR * (r - meanR);
+                    m2G += dG * (g - meanG);
+                    m2B += dB * (b - meanB);
+
+                    if (n >= minSamples) {
+                        // variance of the samples is m2 / (n - 1), the squared error of the mean another 1 / n
+                        final double limit = threshold2 * (n - 1) * n;
+                        if (m2R <= limit && m2G <= limit && m2B <= limit) break;
+                    }
                 }
-                listOfRectangles.add(rectangle);
+
+                frameBuffer.set(x - originX, height - 1 - y - originY, bg.r + meanR, bg.g + meanG, bg.b + meanB);
             }
         }
-        return listOfRectangles;
     }
 
-
+    /**
+     * shades the hit of a primary ray with the tracer of the tile, the random numbers of the secondary rays are seeded by pixel and sample
+     */
+    private color.Color colorFor(final Hit hit, final Tracer tracer, final int x, final int y, final int sample){
+        tracer.seed(x, y, sample);
+        return hit.geo.material.colorFor(hit, tracer);
+    }
 }
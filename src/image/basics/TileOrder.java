@@ -0,0 +1,25 @@
+package image.basics;
+
+/**
+ * Order in which the TileScheduler hands out the tiles of an image
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public enum TileOrder {
+
+    /**
+     * row by row, starting at the top left corner
+     */
+    SCANLINE,
+
+    /**
+     * ring by ring, starting in the center of the image where most of the scene usually is
+     */
+    SPIRAL,
+
+    /**
+     * along a Hilbert curve, neighbouring tiles are rendered close in time which keeps caches warm
+     */
+    HILBERT
+}
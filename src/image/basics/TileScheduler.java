@@ -0,0 +1,258 @@
+package image.basics;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * TileScheduler distributes the tiles of an image over a work-stealing ForkJoinPool.
+ * The pool is created once and reused for every image, until shutdown is called.
+ * Tiles are handed out in the configured TileOrder. A tile splits itself into halves
+ * while other workers run out of work, so a few expensive tiles (e.g. reflective regions)
+ * do not keep a single core busy while all others are idle.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class TileScheduler {
+
+    /**
+     * default edge length of a tile in pixels
+     */
+    public static final int DEFAULT_TILE_SIZE = 32;
+
+    /**
+     * tiles are never split below this edge length
+     */
+    public static final int MIN_TILE_SIZE = 4;
+
+    /**
+     * a tile is split, if no tiles are waiting and fewer surplus tasks than this are queued for the current worker
+     */
+    private static final int SURPLUS_THRESHOLD = 2;
+
+    /**
+     * edge length of a tile in pixels
+     */
+    public final int tileSize;
+
+    /**
+     * order in which tiles are handed out
+     */
+    public final TileOrder order;
+
+    /**
+     * work-stealing pool, lives as long as the scheduler
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor creates a scheduler with one worker per processor, default tile size and spiral order
+     */
+    public TileScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TILE_SIZE, TileOrder.SPIRAL);
+    }
+
+    /**
+     * constructor creates a scheduler
+     *
+     * @param poolSize number of worker threads
+     * @param tileSize edge length of a tile in pixels
+     * @param order    order in which tiles are handed out
+     */
+    public TileScheduler(final int poolSize, final int tileSize, final TileOrder order) {
+        if (poolSize < 1) throw new IllegalArgumentException("poolSize must be at least 1");
+        if (tileSize < 1) throw new IllegalArgumentException("tileSize must be at least 1");
+        this.tileSize = tileSize;
+        this.order = order;
+        this.pool = new ForkJoinPool(poolSize);
+    }
+
+    /**
+     * number of worker threads
+     *
+     * @return the parallelism of the pool
+     */
+    public int poolSize() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * renders the whole image and returns when every tile is done
+     *
+     * @param width    width of the image
+     * @param height   height of the image
+     * @param renderer renderer drawing a single tile
+     */
+    public void render(final int width, final int height, final IF_TileRenderer renderer) {
+        render(width, height, renderer, true);
+    }
+
+    /**
+     * renders the whole image and returns when every tile is done
+     *
+     * @param width    width of the image
+     * @param height   height of the image
+     * @param renderer renderer drawing a single tile
+     * @param split    false if the renderer has to get the tiles of the grid whole, e.g. to write them to a tiled file
+     */
+    public void render(final int width, final int height, final IF_TileRenderer renderer, final boolean split) {
+        final List<Rectangle> tiles = tiles(width, height);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(tiles.size());
+
+        for (final Rectangle tile : tiles) {
+            tasks.add(pool.submit(new TileTask(tile, renderer, split)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * stops the worker threads, the scheduler can not be used afterwards
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * splits the image into tiles and sorts them in the configured order
+     *
+     * @param width  image width
+     * @param height image height
+     * @return ordered list of tiles
+     */
+    public List<Rectangle> tiles(final int width, final int height) {
+        final int columns = (width + tileSize - 1) / tileSize;
+        final int rows = (height + tileSize - 1) / tileSize;
+        final List<Rectangle> tiles = new ArrayList<Rectangle>(columns * rows);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int x = column * tileSize;
+                final int y = row * tileSize;
+                tiles.add(new Rectangle(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y)));
+            }
+        }
+
+        switch (order) {
+            case SPIRAL:
+                Collections.sort(tiles, spiralOrder(columns, rows));
+                break;
+            case HILBERT:
+                Collections.sort(tiles, hilbertOrder(columns, rows));
+                break;
+            default:
+                break;
+        }
+        return tiles;
+    }
+
+    /**
+     * ring by ring around the center tile, clockwise within a ring
+     */
+    private Comparator<Rectangle> spiralOrder(final int columns, final int rows) {
+        final double cx = (columns - 1) / 2.0;
+        final double cy = (rows - 1) / 2.0;
+        return new Comparator<Rectangle>() {
+            @Override
+            public int compare(final Rectangle a, final Rectangle b) {
+                final double ax = a.x / tileSize - cx, ay = a.y / tileSize - cy;
+                final double bx = b.x / tileSize - cx, by = b.y / tileSize - cy;
+                final int ringA = (int) Math.ceil(Math.max(Math.abs(ax), Math.abs(ay)));
+                final int ringB = (int) Math.ceil(Math.max(Math.abs(bx), Math.abs(by)));
+                if (ringA != ringB) return ringA - ringB;
+                return Double.compare(Math.atan2(ay, ax), Math.atan2(by, bx));
+            }
+        };
+    }
+
+    /**
+     * position of the tile on a Hilbert curve covering the tile grid
+     */
+    private Comparator<Rectangle> hilbertOrder(final int columns, final int rows) {
+        int n = 1;
+        while (n < Math.max(columns, rows)) n <<= 1;
+        final int size = n;
+        return new Comparator<Rectangle>() {
+            @Override
+            public int compare(final Rectangle a, final Rectangle b) {
+                return Long.compare(hilbertIndex(size, a.x / tileSize, a.y / tileSize),
+                                    hilbertIndex(size, b.x / tileSize, b.y / tileSize));
+            }
+        };
+    }
+
+    /**
+     * converts grid coordinates to the distance along a Hilbert curve
+     *
+     * @param n edge length of the grid, a power of two
+     * @param x column
+     * @param y row
+     * @return distance along the curve
+     */
+    static long hilbertIndex(final int n, int x, int y) {
+        long d = 0;
+        for (int s = n / 2; s > 0; s /= 2) {
+            final int rx = (x & s) > 0 ? 1 : 0;
+            final int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                final int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Task rendering one tile, it splits itself while other workers are starving
+     */
+    private static final class TileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Rectangle tile;
+        private final IF_TileRenderer renderer;
+        private final boolean split;
+
+        TileTask(final Rectangle tile, final IF_TileRenderer renderer, final boolean split) {
+            this.tile = tile;
+            this.renderer = renderer;
+            this.split = split;
+        }
+
+        @Override
+        protected void compute() {
+            // split only once all tiles have been taken and workers would otherwise run idle
+            final boolean splittable = split && (tile.width >= 2 * MIN_TILE_SIZE || tile.height >= 2 * MIN_TILE_SIZE);
+            if (splittable && !getPool().hasQueuedSubmissions() && getSurplusQueuedTaskCount() < SURPLUS_THRESHOLD) {
+                final Rectangle first;
+                final Rectangle second;
+                if (tile.width >= tile.height) {
+                    final int half = tile.width / 2;
+                    first = new Rectangle(tile.x, tile.y, half, tile.height);
+                    second = new Rectangle(tile.x + half, tile.y, tile.width - half, tile.height);
+                } else {
+                    final int half = tile.height / 2;
+                    first = new Rectangle(tile.x, tile.y, tile.width, half);
+                    second = new Rectangle(tile.x, tile.y + half, tile.width, tile.height - half);
+                }
+                invokeAll(new TileTask(first, renderer, true), new TileTask(second, renderer, true));
+            } else {
+                renderer.renderTile(tile);
+            }
+        }
+    }
+}
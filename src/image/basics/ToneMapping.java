@@ -0,0 +1,42 @@
+package image.basics;
+
+/**
+ * Tone mapping operators applied per channel when a FrameBuffer is written to an image
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public enum ToneMapping implements IF_ToneMapper {
+
+    /**
+     * values above 1 are cut off, the output of the ray tracer before high dynamic range rendering
+     */
+    CLAMP {
+        @Override
+        public double map(final double value) {
+            return Math.max(0.0, Math.min(1.0, value));
+        }
+    },
+
+    /**
+     * Reinhard's operator v / (1 + v), compresses highlights smoothly but darkens the mid tones
+     */
+    REINHARD {
+        @Override
+        public double map(final double value) {
+            final double v = Math.max(0.0, value);
+            return v / (1.0 + v);
+        }
+    },
+
+    /**
+     * Narkowicz's fit of the ACES filmic curve, keeps the mid tones and rolls highlights off to white
+     */
+    ACES {
+        @Override
+        public double map(final double value) {
+            final double v = Math.max(0.0, value);
+            return Math.min(1.0, (v * (2.51 * v + 0.03)) / (v * (2.43 * v + 0.59) + 0.14));
+        }
+    }
+}
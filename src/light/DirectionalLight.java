@@ -1,9 +1,9 @@
 package light;
 
 import color.Color;
-import geometry.Hit;
 import ray.Ray;
 import world.World;
+import mathlib.MutableVector3;
 import mathlib.Point3;
 import mathlib.Vector3;
 
@@ -35,16 +35,10 @@ public class DirectionalLight extends Light {
     @Override
     public boolean illuminates(final Point3 point, final World world) {
         if (this.castShadows) {
-            // initiate ray and get hits
+            // initiate ray, if there is no blocker in direction of the light, world is illuminated, else there is a shadow
             Ray ray = new Ray(point, directionFrom(point));
-            Hit hit = world.hit(ray);
-
-            // if there is not hit, world is illuminated, else there is a shadow
-            if (hit == null) {
-                return true;
-            } else {
-                return false;
-            }
+
+            return !world.occluded(ray, Double.POSITIVE_INFINITY);
         } else {
             // return false and do nothing if there is no shadow
             return false;
@@ -62,6 +56,18 @@ public class DirectionalLight extends Light {
         return this.direction.mul(-1).normalized();
     }
 
+    /**
+     * Method writes the direction to the light into target without allocating
+     *
+     * @param point  the point to check the direction of light from
+     * @param target scratch vector receiving the direction
+     * @return target
+     */
+    @Override
+    public MutableVector3 directionFrom(final Point3 point, final MutableVector3 target) {
+        return target.set(this.direction).mul(-1).normalize();
+    }
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
@@ -2,6 +2,7 @@ package light;
 
 import color.Color;
 import world.World;
+import mathlib.MutableVector3;
 import mathlib.Point3;
 import mathlib.Vector3;
 
@@ -40,6 +41,18 @@ public abstract class Light implements Comparable<Light> {
 
     public abstract Vector3 directionFrom(final Point3 position);
 
+    /**
+     * Method writes the normalized direction from the given point to the light into target,
+     * the same direction as directionFrom returns, but without allocating
+     *
+     * @param position point of intersection
+     * @param target   scratch vector receiving the direction
+     * @return target
+     */
+    public MutableVector3 directionFrom(final Point3 position, final MutableVector3 target) {
+        return target.set(directionFrom(position));
+    }
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
@@ -1,9 +1,9 @@
 package light;
 
 import color.Color;
-import geometry.Hit;
 import ray.Ray;
 import world.World;
+import mathlib.MutableVector3;
 import mathlib.Point3;
 import mathlib.Vector3;
 
@@ -39,22 +39,11 @@ public class PointLight extends Light {
     public boolean illuminates(final Point3 point, final World world) {
 
         if (this.castShadows) {
-            // initiate ray and get hits
-            Ray ray = new Ray(point, this.directionFrom(point));
-            Hit hit = world.hit(ray);
-
-            if (hit == null) {
-                return true;
-            }
-
-            // check if point is behind the position of the light
-            double distancePosAndRay = ray.tOf(this.position);
-            if (hit.t < distancePosAndRay) {
-                //return false;
-                return true;
-            } else {
-                return false;
-            }
+            // initiate ray and look for a blocker between point and the position of the light
+            final Vector3 toLight = this.position.sub(point);
+            Ray ray = new Ray(point, toLight);
+
+            return !world.occluded(ray, toLight.magnitude());
         } else {
             // return false and do nothing if there is no shadow
             return false;
@@ -72,6 +61,18 @@ public class PointLight extends Light {
         return this.position.sub(point).normalized();
     }
 
+    /**
+     * Method writes the direction to the light into target without allocating
+     *
+     * @param point  the point to check the direction of light from
+     * @param target scratch vector receiving the direction
+     * @return target
+     */
+    @Override
+    public MutableVector3 directionFrom(final Point3 point, final MutableVector3 target) {
+        return target.setSub(this.position, point).normalize();
+    }
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
@@ -1,9 +1,9 @@
 package light;
 
 import color.Color;
-import geometry.Hit;
 import ray.Ray;
 import world.World;
+import mathlib.MutableVector3;
 import mathlib.Point3;
 import mathlib.Vector3;
 
@@ -53,28 +53,16 @@ public class SpotLight extends Light {
      */
     @Override
     public boolean illuminates(final Point3 point, final World world) {
-            // calculate length of vector
-            double t = (this.position.sub(point).magnitude) / (directionFrom(point).magnitude);
-
-            // initiate ray and get hits
-            Ray ray = new Ray(point, directionFrom(point));
-            Hit hit = world.hit(ray);
-
             // check if angle is smaller than input angle from geometry
-            if (Math.asin(point.sub(position).normalized().x(direction).magnitude) <= (halfAngle * 1.5)) {
+            if (Math.asin(point.sub(position).normalized().x(direction).magnitude()) <= (halfAngle * 1.5)) {
                 if(!this.castShadows){
                     return true;
                 }
-                if (hit != null) {
-                    // check if hit is beyond the light
-                    if (hit.t < t) {
-                        return false;
-                    } else {
-                        return true;
-                    }
-                } else {
-                    return true;
-                }
+                // calculate length of vector and look for a blocker between point and light
+                final Vector3 toLight = this.position.sub(point);
+                Ray ray = new Ray(point, toLight);
+
+                return !world.occluded(ray, toLight.magnitude());
             } else {
                 return false;
             }
@@ -91,6 +79,18 @@ public class SpotLight extends Light {
         return this.position.sub(point).normalized();
     }
 
+    /**
+     * Method writes the direction to the light into target without allocating
+     *
+     * @param point  the point to check the direction of light from
+     * @param target scratch vector receiving the direction
+     * @return target
+     */
+    @Override
+    public MutableVector3 directionFrom(final Point3 point, final MutableVector3 target) {
+        return target.setSub(this.position, point).normalize();
+    }
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
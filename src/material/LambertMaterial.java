@@ -7,7 +7,7 @@ import world.World;
 import mathlib.Normal3;
 import mathlib.Point3;
 import light.Light;
-import mathlib.Vector3;
+import mathlib.MutableVector3;
 
 /**
  * Class represents a Material
@@ -39,17 +39,43 @@ public class LambertMaterial extends Material {
      */
     @Override
     public Color colorFor(final Hit hit, final World world) {
+        return shade(hit, world, new MutableVector3());
+    }
+
+    /**
+     * calculates the color of hit point, the light direction is written into the scratch vector of the tracer
+     *
+     * @param hit    the hit of a primary ray
+     * @param tracer the tracer of the render task
+     * @return the color for a hit point
+     */
+    @Override
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        return shade(hit, tracer.world, tracer.scratch());
+    }
+
+    /**
+     * calculates the color of hit point
+     *
+     * @param hit   the hit with an object
+     * @param world the world is needed to find the lights
+     * @param l     scratch vector for the light direction
+     * @return the color for a hit point
+     */
+    private Color shade(final Hit hit, final World world, final MutableVector3 l) {
         final Normal3 hitN = hit.n;
-        Color c = this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(world.ambientLight);
+        // the texture is looked up once, the light direction is written into one scratch vector
+        final Color diffuse = this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        Color c = diffuse.mul(world.ambientLight);
         Point3 hitPoint = hit.ray.at(hit.t);
 
         for (Light light : world.lights) {
 
             if (light.illuminates(hitPoint, world)) {
-                Vector3 l = light.directionFrom(hitPoint);
+                light.directionFrom(hitPoint, l);
                 double max = Math.max(0.0, l.dot(hitN));
 
-                c = c.add(this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(light.color).mul(max));
+                c = c.add(diffuse.mul(light.color).mul(max));
             }
         }
         return c;
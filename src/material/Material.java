@@ -31,4 +31,16 @@ public abstract class Material implements Comparable<Material> {
      */
     public abstract Color colorFor(final Hit hit, final World world, final Tracer tracer);
 
+    /**
+     * calculates the color of the hit of a primary ray, secondary rays are traced with the Tracer of the
+     * render task. Materials without secondary rays ignore the tracer.
+     *
+     * @param hit    the hit of a primary ray
+     * @param tracer the tracer of the render task, its world is needed to find the lights
+     * @return the color for a hit point
+     */
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        return colorFor(hit, tracer.world);
+    }
+
 }
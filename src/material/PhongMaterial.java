@@ -7,6 +7,7 @@ import world.World;
 import light.Light;
 import mathlib.Normal3;
 import mathlib.Point3;
+import mathlib.MutableVector3;
 import mathlib.Vector3;
 
 /**
@@ -47,20 +48,49 @@ public class PhongMaterial extends Material {
      */
     @Override
     public Color colorFor(final Hit hit, final World world) {
+        return shade(hit, world, new MutableVector3());
+    }
+
+    /**
+     * calculates the color of hit point, light direction and reflection are written into the scratch vector of the tracer
+     *
+     * @param hit    the hit of a primary ray
+     * @param tracer the tracer of the render task
+     * @return the color for a hit point
+     */
+    @Override
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        return shade(hit, tracer.world, tracer.scratch());
+    }
+
+    /**
+     * calculates the color of hit point
+     *
+     * @param hit   the hit with an object
+     * @param world the world is needed to find the lights
+     * @param l     scratch vector for light direction and reflection
+     * @return the color for a hit point
+     */
+    private Color shade(final Hit hit, final World world, final MutableVector3 l) {
         final Normal3 hitN = hit.n;
-        Color c = this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(world.ambientLight);
+        // the textures are looked up once, light direction and reflection share one scratch vector
+        final Color diffuseColor = this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        final Color specularColor = this.specular.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        final Vector3 d = hit.ray.d;
+        Color c = diffuseColor.mul(world.ambientLight);
         Point3 hitPoint = hit.ray.at(hit.t);
 
         for (Light light : world.lights) {
 
             if (light.illuminates(hitPoint, world)) {
-                Vector3 l = light.directionFrom(hitPoint);
-                Vector3 r = l.reflectedOn(hitN);
-
+                light.directionFrom(hitPoint, l);
                 double max = Math.max(0.0, l.dot(hitN));
-                double max2 = Math.pow(Math.max(0.0, hit.ray.d.mul(-1).dot(r)), this.exponent);
 
-                c = c.add(this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(light.color).mul(max)).add(this.specular.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(light.color).mul(max2));
+                // l is reflected on the normal, -d . r
+                l.reflectOn(hitN);
+                double max2 = Math.pow(Math.max(0.0, -l.dot(d)), this.exponent);
+
+                c = c.add(diffuseColor.mul(light.color).mul(max)).add(specularColor.mul(light.color).mul(max2));
             }
         }
         return c;
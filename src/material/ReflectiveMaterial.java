@@ -6,6 +6,7 @@ import ray.Ray;
 import texture.Texture;
 import world.World;
 import light.Light;
+import mathlib.MutableVector3;
 import mathlib.Point3;
 import mathlib.Vector3;
 
@@ -37,14 +38,25 @@ public class ReflectiveMaterial extends Material{
 
     /**
      * Method returns color for current reflection.
-     * It delegates the hit and world to the rayFor method with a different method signature (addidtional Tracer instance with recursion depth)
+     * It delegates the hit and world to the rayFor method with a different method signature (additional Tracer instance)
      * @param hit   the hit with an object
      * @param world the world is needed to find the lights
      * @return the color of reflection
      */
     @Override
     public Color colorFor(Hit hit, World world) {
-        return colorFor(hit, world, new Tracer(world, 6));
+        return colorFor(hit, world, new Tracer(world));
+    }
+
+    /**
+     * Method returns color for current reflection, traced with the Tracer of the render task.
+     * @param hit    the hit of a primary ray
+     * @param tracer Tracer of the render task
+     * @return the color of reflection
+     */
+    @Override
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        return colorFor(hit, tracer.world, tracer);
     }
 
     /**
@@ -56,22 +68,29 @@ public class ReflectiveMaterial extends Material{
      */
     @Override
     public Color colorFor(final Hit hit, final World world, final Tracer tracer){
-        Color materialColor = world.ambientLight.mul(this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v));
+        final Color diffuseColor    = this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        final Color specularColor   = this.specular.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        final Color reflectionColor = this.reflection.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
+        // light direction and its reflection are calculated in the scratch vector of the tracer
+        final MutableVector3 l = tracer.scratch();
+        Color materialColor = world.ambientLight.mul(diffuseColor);
         Point3 hitPoint     = hit.ray.at(hit.t);
         double cosPhi       = hit.ray.d.mul(-1).dot(hit.n);
         Vector3 rD          = hit.ray.d.add(hit.n.mul(2*cosPhi)).normalized();
 
         for (Light light : world.lights) {
             if (light.illuminates(hitPoint, world)) {
-                Vector3 l = light.directionFrom(hitPoint);
-                Vector3 r = l.reflectedOn(hit.n);
+                light.directionFrom(hitPoint, l);
                 double max1 = Math.max(0.0, l.dot(hit.n));
-                double max2 = Math.pow(Math.max(0.0, hit.ray.d.mul(-1).dot(r)), this.exponent);
-                materialColor = materialColor.add(light.color.mul(this.diffuse.getColor(hit.texCoord2.u, hit.texCoord2.v)).mul(max1)).add(light.color.mul(this.specular.getColor(hit.texCoord2.u, hit.texCoord2.v).mul(max2)));
+                l.reflectOn(hit.n);
+                double max2 = Math.pow(Math.max(0.0, -l.dot(hit.ray.d)), this.exponent);
+                materialColor = materialColor.add(light.color.mul(diffuseColor).mul(max1)).add(light.color.mul(specularColor.mul(max2)));
             }
         }
-        Color reflectedColor = tracer.colorFor(new Ray(hitPoint, rD));
-        return materialColor.add(reflection.getColor(hit.texCoord2.u, hit.texCoord2.v).mul((reflectedColor)));
+        // the reflected color is weighted with the brightest channel of the reflection
+        final double weight = Math.max(reflectionColor.r, Math.max(reflectionColor.g, reflectionColor.b));
+        Color reflectedColor = tracer.colorFor(new Ray(hitPoint, rD), weight);
+        return materialColor.add(reflectionColor.mul((reflectedColor)));
     }
 
     /**
@@ -27,12 +27,12 @@ public class SingleColorMaterial extends Material {
 
     @Override
     public Color colorFor(final Hit hit, final World world) {
-        return this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v);
+        return this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
     }
 
     @Override
     public Color colorFor(Hit hit, World world, Tracer tracer) {
-        return this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v);
+        return this.texture.getColor(hit.texCoord2.u, hit.texCoord2.v, hit.t);
     }
 
     /**
@@ -2,39 +2,211 @@ package material;
 
 import color.Color;
 import geometry.Hit;
+import mathlib.MutableVector3;
 import ray.Ray;
 import world.World;
 
 /**
- * Created by Me on 16.12.2014.
+ * Tracer is the context of the recursive ray tracing of reflective and transparent materials.
+ * It carries the current depth and the throughput, the product of the weights of all rays on
+ * the current path, through the recursion. RayTracer creates one instance per tile and reuses it
+ * for all rays of the tile, so a bounce allocates no Tracer. A Tracer must only be used by one
+ * thread at a time and its calls have to be strictly nested, which is always the case for recursion.
+ * <p/>
+ * Rays whose throughput falls below World.minThroughput are not traced, their contribution is invisible.
+ * Below World.rouletteThreshold a ray survives with probability throughput / rouletteThreshold
+ * (russian roulette) and its color is divided by that probability, so the expected color stays the same.
+ * Materials with more than one secondary ray should follow only one of them below the threshold (see splits).
+ * The random numbers are seeded for every sample of a pixel (see seed), so renders are reproducible.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
  */
 public class Tracer {
-    private final World world;
-    private final int recursionDepth;
+    /**
+     * world the rays are traced in
+     */
+    public final World world;
+
+    /**
+     * maximum number of nested secondary rays, taken from the world
+     */
+    public final int maxDepth;
+
+    /**
+     * maximum number of nested secondary rays of the current primary hit, at most maxDepth
+     */
+    private int limit;
+
+    /**
+     * number of secondary rays on the current path
+     */
+    private int depth;
+
+    /**
+     * product of the weights of the secondary rays on the current path
+     */
+    private double throughput = 1;
+
+    /**
+     * state of the random numbers, seeded for every primary sample
+     */
+    private long randomState;
+
+    /**
+     * one scratch vector per depth, materials of nested calls do not overwrite each other
+     */
+    private final MutableVector3[] scratch;
 
-    public Tracer(final World world, final int recursionDepth) {
+    /**
+     * Constructor for Tracer, one instance is reused for all rays of a render task
+     *
+     * @param world world the rays are traced in
+     */
+    public Tracer(final World world) {
         this.world = world;
-        this.recursionDepth = recursionDepth;
+        this.maxDepth = world.maxDepth;
+        this.limit = maxDepth;
+        this.scratch = new MutableVector3[maxDepth + 1];
+        for (int i = 0; i < scratch.length; i++) {
+            scratch[i] = new MutableVector3();
+        }
     }
 
+    /**
+     * Method traces a secondary ray with weight 1
+     *
+     * @param r the ray
+     * @return the color seen along the ray, the background color if nothing is hit or the maximum depth is reached
+     */
     public Color colorFor(final Ray r) {
-        if (recursionDepth < 0) {
+        return colorFor(r, 1);
+    }
+
+    /**
+     * Method traces a secondary ray, whose color will be multiplied with the given weight
+     * by the caller. The weight is multiplied into the throughput for the nested calls.
+     *
+     * @param r      the ray
+     * @param weight factor of the color of the ray in the color of the caller
+     * @return the color seen along the ray, the background color if nothing is hit or the maximum depth is reached
+     */
+    public Color colorFor(final Ray r, final double weight) {
+        if (depth >= limit) {
+            return World.BACKGROUND_COLOR;
+        }
+        double pathThroughput = throughput * weight;
+        if (pathThroughput < world.minThroughput) {
             return World.BACKGROUND_COLOR;
-        } else {
-            Hit hit = world.hit(r);
-            if (hit != null) {
-                final Color color = hit.geo.material.colorFor(hit, this.world, new Tracer(this.world, this.recursionDepth - 1));
-
-                if (color != null) {
-                    return color;
-                } else {
-                    return World.BACKGROUND_COLOR;
-
-                }
-            } else {
+        }
+        double compensation = 1;
+        if (pathThroughput < world.rouletteThreshold) {
+            final double survival = pathThroughput / world.rouletteThreshold;
+            if (random() >= survival) {
                 return World.BACKGROUND_COLOR;
             }
+            // the surviving ray stands for the terminated ones, the nested rays continue at the threshold
+            compensation = 1 / survival;
+            pathThroughput = world.rouletteThreshold;
+        }
+        final Hit hit = world.hit(r);
+        if (hit == null) {
+            return World.BACKGROUND_COLOR;
         }
+
+        final double outerThroughput = throughput;
+        depth++;
+        throughput = pathThroughput;
+        try {
+            final Color color = hit.geo.material.colorFor(hit, this.world, this);
+            if (color == null) return World.BACKGROUND_COLOR;
+            return (compensation == 1) ? color : color.mul(compensation);
+        } finally {
+            depth--;
+            throughput = outerThroughput;
+        }
+    }
+
+    /**
+     * Method shades the hit of a primary ray with its material, the paths of the hit have at most
+     * the given number of nested secondary rays, but never more than maxDepth
+     *
+     * @param hit   hit of a primary ray
+     * @param limit maximum number of nested secondary rays
+     * @return the color of the hit
+     */
+    public Color colorFor(final Hit hit, final int limit) {
+        final int outerLimit = this.limit;
+        this.limit = Math.min(limit, maxDepth);
+        try {
+            return hit.geo.material.colorFor(hit, this.world, this);
+        } finally {
+            this.limit = outerLimit;
+        }
+    }
+
+    /**
+     * number of secondary rays on the current path
+     *
+     * @return the depth, 0 for the hit of a primary ray
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * product of the weights of the secondary rays on the current path
+     *
+     * @return the throughput, 1 for the hit of a primary ray
+     */
+    public double throughput() {
+        return throughput;
+    }
+
+    /**
+     * Method tells a material with several secondary rays (e.g. reflection and refraction) whether it
+     * should trace all of them. Below the roulette threshold it should choose one with probability
+     * proportional to its weight and trace it with weight 1, which keeps the expected color and
+     * stops the number of rays from doubling with every bounce.
+     *
+     * @return true if all secondary rays should be traced
+     */
+    public boolean splits() {
+        return throughput >= world.rouletteThreshold;
+    }
+
+    /**
+     * Method seeds the random numbers for one sample of a pixel, called before its primary hit is shaded,
+     * so the random decisions of a sample do not depend on the thread or the order of the tiles
+     *
+     * @param x      column of the pixel
+     * @param y      row of the pixel
+     * @param sample index of the sample in the pixel
+     */
+    public void seed(final int x, final int y, final int sample) {
+        randomState = x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ sample * 0x165667B19E3779F9L;
+    }
+
+    /**
+     * uniformly distributed random number of the current sample (SplitMix64)
+     *
+     * @return random number between 0 (inclusive) and 1 (exclusive)
+     */
+    public double random() {
+        long z = (randomState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * scratch vector of the current depth, it may be overwritten by the next call at the same depth
+     *
+     * @return the scratch vector
+     */
+    public MutableVector3 scratch() {
+        return scratch[depth];
     }
 
     /**
@@ -46,7 +218,8 @@ public class Tracer {
     public String toString() {
         return "Tracer Instance:\n"
                 + "World: \n" + this.world.toString()
-                + "\nrecursionDepth: \n" + this.recursionDepth;
+                + "\nmaxDepth: \n" + this.maxDepth
+                + "\ndepth: \n" + this.depth;
     }
 
     /**
@@ -57,10 +230,8 @@ public class Tracer {
     @Override
     public int hashCode() {
         int result;
-        long hash;
 
-        hash = Double.doubleToLongBits(recursionDepth);
-        result = (int) (hash ^ (hash >>> 32));
+        result = maxDepth;
         result = 31 * result + this.world.hashCode();
 
         return result;
@@ -77,6 +248,6 @@ public class Tracer {
         if (o == null || !(o instanceof Tracer)) return false;
         final Tracer tr = (Tracer) o;
         return this.world.equals(tr.world)
-                && this.recursionDepth == tr.recursionDepth;
+                && this.maxDepth == tr.maxDepth;
     }
 }
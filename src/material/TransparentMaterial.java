@@ -21,41 +21,16 @@ public class TransparentMaterial extends Material {
 
     @Override
     public Color colorFor(final Hit hit, final World world) {
-        Normal3 normal = hit.n;
-
-        final Vector3 e = hit.ray.d.mul(-1).reflectedOn(normal);
-
-        // rate of refraction
-        final boolean inside = (e.dot(normal)) < 0;
-        double eta = 0;
-        if (inside) {
-            eta = indexOfRefraction / world.indexOfRefraction;
-            normal = normal.mul(-1);
-        } else {
-            eta = world.indexOfRefraction / indexOfRefraction;
-        }
-
-        final Tracer tracer = new Tracer(world, (int) indexOfRefraction);
-
-        final double cosThetaI = normal.dot(e);
-
-        final double h = (1 - (Math.pow(eta, 2.0) * (1 - Math.pow(cosThetaI, 2.0))));
-        if (h < 0) {
-            return tracer.colorFor(new Ray(hit.ray.at(hit.t - Geometry.EPSILON), e));
-        } else {
-
-            final double cosThetaT = Math.sqrt(h);
-            final Vector3 t = hit.ray.d.mul(eta).sub(normal.mul(cosThetaT - eta * cosThetaI));
-
-            // Schlick
-            final double r0 = Math.pow((world.indexOfRefraction - indexOfRefraction) / (world.indexOfRefraction + indexOfRefraction), 2);
-            final double r = r0 + (1 - r0) * Math.pow(1 - cosThetaI, 5);
-            final double T = 1 - r;
+        return colorFor(hit, new Tracer(world));
+    }
 
-            // R and T are multiplied with the colors of the raytraced rays
-            return tracer.colorFor(new Ray(hit.ray.at(hit.t - Geometry.EPSILON), e)).mul(r)
-                    .add(tracer.colorFor(new Ray(hit.ray.at(hit.t + Geometry.EPSILON), t)).mul(T));
+    @Override
+    public Color colorFor(final Hit hit, final Tracer tracer) {
+        if (tracer.world.depthConfigured) {
+            return colorFor(hit, tracer.world, tracer);
         }
+        // without a configured depth the paths of glass keep their old limit of (int) indexOfRefraction + 1 nested rays
+        return tracer.colorFor(hit, (int) indexOfRefraction + 1);
     }
 
     @Override
@@ -89,9 +64,17 @@ public class TransparentMaterial extends Material {
             final double r = r0 + (1 - r0) * Math.pow(1 - cosThetaI, 5);
             final double T = 1 - r;
 
+            if (!tracer.splits()) {
+                // only one ray is traced, chosen with probability R or T, its color needs no weight
+                if (tracer.random() < r) {
+                    return tracer.colorFor(new Ray(hit.ray.at(hit.t - Geometry.EPSILON), e));
+                }
+                return tracer.colorFor(new Ray(hit.ray.at(hit.t + Geometry.EPSILON), t));
+            }
+
             // R and T are multiplied with the colors of the raytraced rays
-            return tracer.colorFor(new Ray(hit.ray.at(hit.t - Geometry.EPSILON), e)).mul(r)
-                    .add(tracer.colorFor(new Ray(hit.ray.at(hit.t + Geometry.EPSILON), t)).mul(T));
+            return tracer.colorFor(new Ray(hit.ray.at(hit.t - Geometry.EPSILON), e), r).mul(r)
+                    .add(tracer.colorFor(new Ray(hit.ray.at(hit.t + Geometry.EPSILON), t), T).mul(T));
         }
     }
 
@@ -0,0 +1,226 @@
+package mathlib;
+
+/**
+ * MutableVector3 is a reusable scratch vector for hot loops. Unlike Vector3, Point3 and Normal3
+ * every operation changes the instance itself and returns it, so a chain of operations allocates
+ * nothing. An instance must not be shared between threads, it is meant to live in a local variable
+ * or a per-thread context.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public final class MutableVector3 {
+
+    /**
+     * x, y, z representing the coordinates of the vector
+     */
+    public double x, y, z;
+
+    /**
+     * Constructor instantiates a zero vector
+     */
+    public MutableVector3() {
+    }
+
+    /**
+     * Constructor instantiates a vector with the given coordinates
+     *
+     * @param x x-value
+     * @param y y-value
+     * @param z z-value
+     */
+    public MutableVector3(final double x, final double y, final double z) {
+        set(x, y, z);
+    }
+
+    /**
+     * Method sets the coordinates
+     *
+     * @param x x-value
+     * @param y y-value
+     * @param z z-value
+     * @return this vector
+     */
+    public MutableVector3 set(final double x, final double y, final double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * Method copies the coordinates of a Vector3
+     *
+     * @param v vector to copy
+     * @return this vector
+     */
+    public MutableVector3 set(final Vector3 v) {
+        return set(v.x, v.y, v.z);
+    }
+
+    /**
+     * Method copies the coordinates of a Normal3
+     *
+     * @param n normal to copy
+     * @return this vector
+     */
+    public MutableVector3 set(final Normal3 n) {
+        return set(n.x, n.y, n.z);
+    }
+
+    /**
+     * Method sets the vector to the difference of two points, a - b
+     *
+     * @param a end point
+     * @param b start point
+     * @return this vector
+     */
+    public MutableVector3 setSub(final Point3 a, final Point3 b) {
+        return set(a.x - b.x, a.y - b.y, a.z - b.z);
+    }
+
+    /**
+     * Method adds the given coordinates
+     *
+     * @param x x-value to add
+     * @param y y-value to add
+     * @param z z-value to add
+     * @return this vector
+     */
+    public MutableVector3 add(final double x, final double y, final double z) {
+        return set(this.x + x, this.y + y, this.z + z);
+    }
+
+    /**
+     * Method adds a vector multiplied with a factor, this + v * c
+     *
+     * @param v vector to add
+     * @param c factor of v
+     * @return this vector
+     */
+    public MutableVector3 addScaled(final MutableVector3 v, final double c) {
+        return set(x + v.x * c, y + v.y * c, z + v.z * c);
+    }
+
+    /**
+     * Method multiplies the vector with a factor
+     *
+     * @param c factor
+     * @return this vector
+     */
+    public MutableVector3 mul(final double c) {
+        return set(x * c, y * c, z * c);
+    }
+
+    /**
+     * Method calculates the dot product with the given coordinates
+     *
+     * @param x x-value
+     * @param y y-value
+     * @param z z-value
+     * @return the dot product
+     */
+    public double dot(final double x, final double y, final double z) {
+        return this.x * x + this.y * y + this.z * z;
+    }
+
+    /**
+     * Method calculates the dot product with a Normal3
+     *
+     * @param n the normal
+     * @return the dot product
+     */
+    public double dot(final Normal3 n) {
+        return dot(n.x, n.y, n.z);
+    }
+
+    /**
+     * Method calculates the dot product with a Vector3
+     *
+     * @param v the vector
+     * @return the dot product
+     */
+    public double dot(final Vector3 v) {
+        return dot(v.x, v.y, v.z);
+    }
+
+    /**
+     * Method sets the vector to the cross product of itself and the given vector
+     *
+     * @param v second vector of the cross product
+     * @return this vector
+     */
+    public MutableVector3 cross(final MutableVector3 v) {
+        return set(y * v.z - z * v.y,
+                   z * v.x - x * v.z,
+                   x * v.y - y * v.x);
+    }
+
+    /**
+     * Method reflects the vector on a normal, like Vector3.reflectedOn
+     *
+     * @param n normal to reflect on
+     * @return this vector
+     */
+    public MutableVector3 reflectOn(final Normal3 n) {
+        final double d2 = 2 * dot(n);
+        return set(d2 * n.x - x, d2 * n.y - y, d2 * n.z - z);
+    }
+
+    /**
+     * Method returns the squared length of the vector
+     *
+     * @return x * x + y * y + z * z
+     */
+    public double magnitudeSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Method returns the length of the vector
+     *
+     * @return the length
+     */
+    public double magnitude() {
+        return Math.sqrt(magnitudeSquared());
+    }
+
+    /**
+     * Method scales the vector to length 1
+     *
+     * @return this vector
+     */
+    public MutableVector3 normalize() {
+        return mul(1 / magnitude());
+    }
+
+    /**
+     * Method creates an immutable copy
+     *
+     * @return new Vector3 instance
+     */
+    public Vector3 toVector3() {
+        return new Vector3(x, y, z);
+    }
+
+    /**
+     * Method creates an immutable copy as normal, the vector should be normalized
+     *
+     * @return new Normal3 instance
+     */
+    public Normal3 toNormal3() {
+        return new Normal3(x, y, z);
+    }
+
+    /**
+     * Overridden toString-method
+     *
+     * @return a String representing all attributes and values of the MutableVector3 instance
+     */
+    @Override
+    public String toString() {
+        return "MutableVector3 instance: \nx: " + x +
+                "\ny: " + y +
+                "\nz: " + z;
+    }
+}
@@ -11,7 +11,7 @@ public final class Vector3 implements Comparable<Vector3> {
     /**
      * x, y, z representing the coordinates of the Vector3
      */
-    public final double x, y, z, magnitude;
+    public final double x, y, z;
 
     /**
      * Constructor instantiates a new Vector3, representing a 3D vector
@@ -24,19 +24,15 @@ public final class Vector3 implements Comparable<Vector3> {
         this.x = x;
         this.y = y;
         this.z = z;
-        this.magnitude = calcMagnitude(this);
     }
 
     /**
-     * Method calculates the magnitude of the Vector3 instance attributes x,y,z
+     * Method calculates the magnitude of the Vector3 on demand, temporary vectors never pay for it
      *
-     * @param v Vector3 instance to calculation magnitude
      * @return magnitude of the Vector3 (length)
      */
-    private double calcMagnitude(final Vector3 v) {
-        return Math.sqrt(Math.pow(v.x, 2)
-                + Math.pow(v.y, 2)
-                + Math.pow(v.z, 2));
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y + z * z);
     }
 
     /**
@@ -129,7 +125,7 @@ public final class Vector3 implements Comparable<Vector3> {
      * @return new Vector3 instance with normalized values for x, y and z
      */
     public Vector3 normalized() {
-        return mul(1 / magnitude);
+        return mul(1 / magnitude());
     }
 
     /**
@@ -177,7 +173,7 @@ public final class Vector3 implements Comparable<Vector3> {
         return "Vector3 instance: \nx: " + x +
                 "\ny: " + y +
                 "\nz: " + z +
-                "\nmagnitude: " + magnitude;
+                "\nmagnitude: " + magnitude();
     }
 
     /**
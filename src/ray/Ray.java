@@ -21,7 +21,8 @@ public class Ray implements Comparable<Ray>{
      */
     public Ray(final Point3 o, final Vector3 d) {
         this.o = o;
-        this.d = d.normalized();
+        final double scale = 1 / Math.sqrt(d.x * d.x + d.y * d.y + d.z * d.z);
+        this.d = new Vector3(d.x * scale, d.y * scale, d.z * scale);
     }
 
     /**
@@ -31,8 +32,7 @@ public class Ray implements Comparable<Ray>{
      * @return new Point3 instance
      */
     public Point3 at(final double t) {
-        Vector3 v = d.mul(t);
-        return o.add(v);
+        return new Point3(o.x + d.x * t, o.y + d.y * t, o.z + d.z * t);
     }
 
     /**
@@ -42,7 +42,7 @@ public class Ray implements Comparable<Ray>{
      * @return the length
      */
     public double tOf(final Point3 o) {
-        return o.sub(o).magnitude / this.d.magnitude;
+        return o.sub(o).magnitude() / this.d.magnitude();
     }
 
     @Override
@@ -0,0 +1,58 @@
+package sampling;
+
+/**
+ * HaltonSequence takes the radical inverses of the sample index to the prime bases 2, 3, 5 and 7.
+ * Every pixel shifts the points by a random offset modulo 1 (Cranley-Patterson rotation),
+ * the points keep their low discrepancy but are different in every pixel.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class HaltonSequence extends SampleSequence {
+
+    /**
+     * prime base of every dimension
+     */
+    private static final int[] BASES = {2, 3, 5, 7};
+
+    /**
+     * Constructor for HaltonSequence
+     *
+     * @param size number of samples per pixel
+     */
+    public HaltonSequence(final int size) {
+        super(size);
+    }
+
+    /**
+     * Method mirrors the digits of the index in the given base at the decimal point
+     *
+     * @param base  base of the digits
+     * @param index the index
+     * @return the radical inverse between 0 and 1
+     */
+    public static double radicalInverse(final int base, int index) {
+        final double invBase = 1.0 / base;
+        double factor = invBase;
+        double result = 0;
+        while (index > 0) {
+            result += (index % base) * factor;
+            index /= base;
+            factor *= invBase;
+        }
+        return result;
+    }
+
+    @Override
+    public double sample(final int pixel, final int index, final int dimension) {
+        final double value = radicalInverse(BASES[dimension], index) + toUnit(hash(pixel, dimension));
+        return value >= 1 ? value - 1 : value;
+    }
+
+    @Override
+    public String toString() {
+        return "HaltonSequence{" +
+                "size=" + size +
+                '}';
+    }
+}
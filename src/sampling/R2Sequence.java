@@ -0,0 +1,53 @@
+package sampling;
+
+/**
+ * R2Sequence is the additive recurrence of Roberts, the sample index is multiplied with the
+ * inverse powers of the plastic number for the pixel dimensions. The lens dimensions use the
+ * third and fourth inverse power of the generalized golden ratio of four dimensions, so the
+ * recurrence stays irrational in every dimension. Every pixel shifts the points by a random offset.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class R2Sequence extends SampleSequence {
+
+    /**
+     * plastic number, the real root of x^3 = x + 1
+     */
+    public static final double PLASTIC = 1.32471795724474602596;
+
+    /**
+     * generalized golden ratio of four dimensions, the real root of x^5 = x + 1
+     */
+    private static final double PHI_4 = 1.16730397826141868426;
+
+    /**
+     * increment of every dimension
+     */
+    private static final double[] ALPHA = {
+            1 / PLASTIC, 1 / (PLASTIC * PLASTIC),
+            1 / (PHI_4 * PHI_4 * PHI_4), 1 / (PHI_4 * PHI_4 * PHI_4 * PHI_4)
+    };
+
+    /**
+     * Constructor for R2Sequence
+     *
+     * @param size number of samples per pixel
+     */
+    public R2Sequence(final int size) {
+        super(size);
+    }
+
+    @Override
+    public double sample(final int pixel, final int index, final int dimension) {
+        final double value = 0.5 + ALPHA[dimension] * index + toUnit(hash(pixel, dimension));
+        return value - Math.floor(value);
+    }
+
+    @Override
+    public String toString() {
+        return "R2Sequence{" +
+                "size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package sampling;
+
+/**
+ * SampleSequence is the base class of the sample generators. Unlike a SamplingPattern it stores
+ * no points, every value is calculated from the pixel, the index of the sample and the dimension.
+ * Dimensions 0 and 1 are the position in the pixel, dimensions 2 and 3 the position on the lens.
+ * The values of every pixel are scrambled by a hash of the pixel, so neighbouring pixels get
+ * decorrelated points and the image shows noise instead of aliasing patterns.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public abstract class SampleSequence {
+
+    /**
+     * number of dimensions every sample has
+     */
+    public static final int DIMENSIONS = 4;
+
+    /**
+     * number of samples per pixel
+     */
+    public final int size;
+
+    /**
+     * Constructor for SampleSequence
+     *
+     * @param size number of samples per pixel
+     */
+    protected SampleSequence(final int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be at least 1");
+        this.size = size;
+    }
+
+    /**
+     * Method returns one coordinate of a sample
+     *
+     * @param pixel     number of the pixel, e.g. y * width + x
+     * @param index     index of the sample, between 0 and size - 1
+     * @param dimension dimension of the coordinate, between 0 and DIMENSIONS - 1
+     * @return the coordinate between 0 (inclusive) and 1 (exclusive)
+     */
+    public abstract double sample(final int pixel, final int index, final int dimension);
+
+    /**
+     * Method mixes the bits of the given value, so similar values get unrelated hashes
+     *
+     * @param value value to hash
+     * @return the hash
+     */
+    public static int hash(int value) {
+        value ^= value >>> 16;
+        value *= 0x7feb352d;
+        value ^= value >>> 15;
+        value *= 0x846ca68b;
+        value ^= value >>> 16;
+        return value;
+    }
+
+    /**
+     * Method returns a hash for the given pixel and dimension
+     *
+     * @param pixel     number of the pixel
+     * @param dimension dimension of the coordinate
+     * @return the hash
+     */
+    protected static int hash(final int pixel, final int dimension) {
+        return hash(hash(pixel) + 0x9e3779b9 * (dimension + 1));
+    }
+
+    /**
+     * Method maps the upper 24 bits of the given value to a double between 0 and 1
+     *
+     * @param bits random or sequence bits
+     * @return the value between 0 (inclusive) and 1 (exclusive)
+     */
+    protected static double toUnit(final int bits) {
+        return (bits >>> 8) * 0x1p-24;
+    }
+
+    /**
+     * Method maps a point of the square to the unit disc with the concentric mapping of Shirley and Chiu,
+     * the same mapping as SamplingPattern.asDisc
+     *
+     * @param x x of the point, between -0.5 and 0.5
+     * @param y y of the point, between -0.5 and 0.5
+     * @return x of the point on the disc
+     */
+    public static double discX(final double x, final double y) {
+        return discRadius(2.0 * x, 2.0 * y) * Math.cos(discAngle(2.0 * x, 2.0 * y));
+    }
+
+    /**
+     * Method maps a point of the square to the unit disc with the concentric mapping of Shirley and Chiu,
+     * the same mapping as SamplingPattern.asDisc
+     *
+     * @param x x of the point, between -0.5 and 0.5
+     * @param y y of the point, between -0.5 and 0.5
+     * @return y of the point on the disc
+     */
+    public static double discY(final double x, final double y) {
+        return discRadius(2.0 * x, 2.0 * y) * Math.sin(discAngle(2.0 * x, 2.0 * y));
+    }
+
+    /**
+     * radius of the concentric mapping for a point between -1 and 1
+     */
+    static double discRadius(final double x, final double y) {
+        if (x > -y) {
+            return (x > y) ? x : y;
+        }
+        return (x < y) ? -x : -y;
+    }
+
+    /**
+     * angle of the concentric mapping for a point between -1 and 1
+     */
+    static double discAngle(final double x, final double y) {
+        final double a;
+        if (x > -y) {
+            a = (x > y) ? y / x : 2.0 - x / y;
+        } else if (x < y) {
+            a = 4 + y / x;
+        } else {
+            a = (y != 0) ? 6 - x / y : 0;
+        }
+        return a * Math.PI / 4.0;
+    }
+}
@@ -84,35 +84,7 @@ public class SamplingPattern implements Comparable<SamplingPattern> {
         List<Point2> discPoints = new ArrayList<Point2>();
 
         for (Point2 p : points) {
-            double x = 2.0 * p.x;
-            double y = 2.0 * p.y;
-
-            double r = 0;
-            double a = 0;
-            if (x > -y) {
-                if (x > y) {
-                    r = x;
-                    a = y / x;
-                } else {
-                    r = y;
-                    a = 2.0 - x / y;
-                }
-            } else {
-                if (x < y) {
-                    r = -x;
-                    a = 4 + y / x;
-                } else {
-                    r = -y;
-                    if (y != 0) {
-                        a = 6 - x / y;
-                    } else {
-                        a = 0;
-                    }
-                }
-            }
-
-            double phi = a * Math.PI / 4.0;
-            discPoints.add(new Point2(r * Math.cos(phi), r * Math.sin(phi) ));
+            discPoints.add(new Point2(SampleSequence.discX(p.x, p.y), SampleSequence.discY(p.x, p.y)));
         }
         return discPoints;
     }
@@ -0,0 +1,97 @@
+package sampling;
+
+/**
+ * SobolSequence generates the first four dimensions of the Sobol sequence, with the direction
+ * numbers of Joe and Kuo. Every pixel gets its own Owen scrambling of every dimension, calculated
+ * with the hash based nested uniform scrambling of Burley ("Practical Hash-based Owen Scrambling", 2020).
+ * Scrambled points keep the stratification of the sequence in every power of two.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class SobolSequence extends SampleSequence {
+
+    /**
+     * direction numbers of the four dimensions, one int for every bit of the index
+     */
+    private static final int[][] DIRECTIONS = new int[DIMENSIONS][32];
+
+    static {
+        // dimension 0 is the van der Corput sequence
+        for (int k = 0; k < 32; k++) {
+            DIRECTIONS[0][k] = 1 << (31 - k);
+        }
+        // degree s, coefficients a and initial numbers m of the primitive polynomials of dimension 1 to 3
+        final int[] s = {1, 2, 3};
+        final int[] a = {0, 1, 1};
+        final int[][] m = {{1}, {1, 3}, {1, 3, 1}};
+        for (int d = 1; d < DIMENSIONS; d++) {
+            final int[] v = DIRECTIONS[d];
+            final int degree = s[d - 1];
+            for (int k = 0; k < degree; k++) {
+                v[k] = m[d - 1][k] << (31 - k);
+            }
+            for (int k = degree; k < 32; k++) {
+                v[k] = v[k - degree] ^ (v[k - degree] >>> degree);
+                for (int j = 1; j < degree; j++) {
+                    if (((a[d - 1] >>> (degree - 1 - j)) & 1) != 0) v[k] ^= v[k - j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor for SobolSequence, the sequence is best stratified if size is a power of two
+     *
+     * @param size number of samples per pixel
+     */
+    public SobolSequence(final int size) {
+        super(size);
+    }
+
+    /**
+     * Method returns the unscrambled bits of the Sobol point
+     *
+     * @param index     index of the point
+     * @param dimension dimension of the coordinate
+     * @return the coordinate as fraction of 2^32
+     */
+    public static int sobol(int index, final int dimension) {
+        final int[] v = DIRECTIONS[dimension];
+        int result = 0;
+        for (int k = 0; index != 0; k++, index >>>= 1) {
+            if ((index & 1) != 0) result ^= v[k];
+        }
+        return result;
+    }
+
+    /**
+     * Method scrambles the bits of x so that every bit is flipped depending on all higher bits
+     *
+     * @param x    bits to scramble
+     * @param seed seed of the scrambling
+     * @return the scrambled bits
+     */
+    private static int owenScramble(int x, final int seed) {
+        // the Laine-Karras permutation flips bits depending on lower bits, so it is applied to the reversed bits
+        x = Integer.reverse(x);
+        x += seed;
+        x ^= x * 0x6c50b47c;
+        x ^= x * 0xb82f1e52;
+        x ^= x * 0xc7afe638;
+        x ^= x * 0x8d22f6e6;
+        return Integer.reverse(x);
+    }
+
+    @Override
+    public double sample(final int pixel, final int index, final int dimension) {
+        return toUnit(owenScramble(sobol(index, dimension), hash(pixel, dimension)));
+    }
+
+    @Override
+    public String toString() {
+        return "SobolSequence{" +
+                "size=" + size +
+                '}';
+    }
+}
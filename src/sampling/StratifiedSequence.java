@@ -0,0 +1,67 @@
+package sampling;
+
+/**
+ * StratifiedSequence divides the pixel into a grid of strata and takes one randomly jittered
+ * sample in every stratum. The lens dimensions use the same strata, in an order permuted
+ * for every pixel, so lens and pixel position are not correlated.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class StratifiedSequence extends SampleSequence {
+
+    /**
+     * number of strata in x and y direction
+     */
+    public final int x, y;
+
+    /**
+     * smallest multiplier coprime to size, that is not smaller than the index
+     */
+    private final int[] coprime;
+
+    /**
+     * Constructor for StratifiedSequence
+     *
+     * @param x number of strata in x direction
+     * @param y number of strata in y direction
+     */
+    public StratifiedSequence(final int x, final int y) {
+        super(x * y);
+        this.x = x;
+        this.y = y;
+        this.coprime = new int[size];
+        for (int i = 0; i < size; i++) {
+            int a = i;
+            while (gcd(a, size) != 1) a++;
+            this.coprime[i] = a;
+        }
+    }
+
+    @Override
+    public double sample(final int pixel, final int index, final int dimension) {
+        int stratum = index;
+        if (dimension >= 2) {
+            // stratum = (index * a + b) mod size is a permutation, if a is coprime to size
+            final int a = coprime[(hash(pixel, DIMENSIONS) >>> 1) % size];
+            stratum = (int) (((long) index * a + (hash(pixel, DIMENSIONS + 1) >>> 1)) % size);
+        }
+        final double jitter = toUnit(hash(hash(pixel, dimension) + index));
+        if ((dimension & 1) == 0) {
+            return (stratum % x + jitter) / x;
+        }
+        return (stratum / x + jitter) / y;
+    }
+
+    private static int gcd(final int a, final int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @Override
+    public String toString() {
+        return "StratifiedSequence{" +
+                "x=" + x +
+                ", y=" + y +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package testing.benchmark;
+
+import java.util.Locale;
+
+/**
+ * Benchmark is a small measuring harness for the hot paths of the ray tracer.
+ * An operation is first run for a number of warmup iterations so the JIT compiler
+ * can optimize it, then the average time per call is measured over several iterations.
+ * Every result is written to a volatile field, so the JIT can not remove the measured work.
+ * <p/>
+ * Iterations can be configured with the system properties
+ * benchmark.warmup (default 3), benchmark.iterations (default 5) and benchmark.time (milliseconds per iteration, default 500).
+ * Inputs are generated from a fixed seed, so numbers of different runs are comparable.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public abstract class Benchmark {
+
+    public static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmup", 3);
+    public static final int MEASURE_ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    public static final long ITERATION_MILLIS = Long.getLong("benchmark.time", 500L);
+
+    /**
+     * seed for all generated inputs
+     */
+    public static final long SEED = 42L;
+
+    /**
+     * results are written here to keep them alive
+     */
+    private static volatile Object sink;
+
+    /**
+     * name printed in the result line
+     */
+    public final String name;
+
+    /**
+     * constructor for Benchmark
+     *
+     * @param name name printed in the result line
+     */
+    protected Benchmark(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * the measured operation
+     *
+     * @param i number of the call, used to pick an input
+     * @return result of the operation
+     */
+    protected abstract Object run(int i);
+
+    /**
+     * runs warmup and measurement and prints the average time per call
+     *
+     * @return average nanoseconds per call
+     */
+    public double measure() {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration();
+        }
+        final double[] results = new double[MEASURE_ITERATIONS];
+        double mean = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            results[i] = iteration();
+            mean += results[i] / MEASURE_ITERATIONS;
+        }
+        double variance = 0;
+        for (double result : results) {
+            variance += (result - mean) * (result - mean) / Math.max(1, MEASURE_ITERATIONS - 1);
+        }
+        System.out.println(String.format(Locale.ROOT, "%-50s %12.1f ns/op  +- %8.1f  (%,.0f ops/s)",
+                name, mean, Math.sqrt(variance), 1e9 / mean));
+        return mean;
+    }
+
+    /**
+     * calls the operation in batches until the iteration time is over
+     *
+     * @return nanoseconds per call
+     */
+    private double iteration() {
+        final long duration = ITERATION_MILLIS * 1000000L;
+        final long start = System.nanoTime();
+        long calls = 0;
+        long elapsed;
+        do {
+            for (int i = 0; i < 256; i++) {
+                sink = run((int) calls++);
+            }
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < duration);
+        return (double) elapsed / calls;
+    }
+}
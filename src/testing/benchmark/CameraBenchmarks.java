@@ -0,0 +1,77 @@
+package testing.benchmark;
+
+import camera.Camera;
+import camera.CameraFrame;
+import camera.DOFCamera;
+import camera.MotionBlurCamera;
+import camera.OrthographicCamera;
+import camera.PerspectiveCamera;
+import mathlib.Point3;
+import mathlib.Vector3;
+import ray.Ray;
+import sampling.SamplingPattern;
+
+/**
+ * CameraBenchmarks measures the ray generation of every camera type,
+ * once through rayFor and once through a CameraFrame as used by the RayTracer.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public class CameraBenchmarks {
+
+    public static final int WIDTH = 640;
+    public static final int HEIGHT = 480;
+
+    public static Point3  e = new Point3(4, 4, 4);
+    public static Vector3 g = new Vector3(-1, -1, -1);
+    public static Vector3 t = new Vector3(0, 1, 0);
+
+    /**
+     * Benchmark calling rayFor for all pixels in turn
+     */
+    public static Benchmark rayFor(final String name, final Camera camera) {
+        return new Benchmark(name + ".rayFor") {
+            @Override
+            protected Object run(final int i) {
+                final int pixel = (i & Integer.MAX_VALUE) % (WIDTH * HEIGHT);
+                return camera.rayFor(WIDTH, HEIGHT, pixel % WIDTH, pixel / WIDTH);
+            }
+        };
+    }
+
+    /**
+     * Benchmark filling a ray buffer from the frame for all pixels in turn
+     */
+    public static Benchmark frame(final String name, final Camera camera) {
+        final CameraFrame frame = camera.frame(WIDTH, HEIGHT);
+        final Ray[] rays = new Ray[frame.samplesPerPixel];
+        return new Benchmark(name + ".frame.raysFor") {
+            @Override
+            protected Object run(final int i) {
+                final int pixel = (i & Integer.MAX_VALUE) % (WIDTH * HEIGHT);
+                frame.raysFor(pixel % WIDTH, pixel / WIDTH, rays);
+                return rays[0];
+            }
+        };
+    }
+
+    /**
+     * Main Class, runs all camera benchmarks
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        final Camera[] cameras = {
+                new PerspectiveCamera(e, g, t, Math.PI / 4, new SamplingPattern(2, 2)),
+                new OrthographicCamera(e, g, t, 3, new SamplingPattern(2, 2)),
+                new DOFCamera(e, g, t, Math.PI / 4, 5, 0.2, new SamplingPattern(2, 2)),
+                new MotionBlurCamera(e, g, t, Math.PI / 4, 4, 20, new SamplingPattern(2, 2))
+        };
+        for (Camera camera : cameras) {
+            final String name = camera.getClass().getSimpleName();
+            rayFor(name, camera).measure();
+            frame(name, camera).measure();
+        }
+    }
+}
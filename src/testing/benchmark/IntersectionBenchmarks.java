@@ -0,0 +1,143 @@
+package testing.benchmark;
+
+import color.Color;
+import geometry.AxisAlignedBox;
+import geometry.Geometry;
+import geometry.Node;
+import geometry.Plane;
+import geometry.Sphere;
+import geometry.Triangle;
+import light.Light;
+import material.LambertMaterial;
+import material.Material;
+import mathlib.Normal3;
+import mathlib.Point3;
+import mathlib.Transform;
+import mathlib.Vector3;
+import ray.Ray;
+import texture.SingleColorTexture;
+import world.World;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * IntersectionBenchmarks measures the hit methods of all geometries
+ * and World.hit for scenes of increasing size, with and without the BVH.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public class IntersectionBenchmarks {
+
+    public static final Material material = new LambertMaterial(new SingleColorTexture(new Color(0.5, 0.5, 0.5)));
+
+    /**
+     * number of prepared rays, a power of two
+     */
+    public static final int RAY_COUNT = 1 << 12;
+
+    /**
+     * rays starting around the scene and pointing roughly at the origin, about half of them hit a unit sized geometry
+     *
+     * @param random random generator
+     * @param spread radius of the area the rays aim at
+     * @return array of rays
+     */
+    public static Ray[] rays(final Random random, final double spread) {
+        final Ray[] rays = new Ray[RAY_COUNT];
+        for (int i = 0; i < RAY_COUNT; i++) {
+            final Point3 o = new Point3(random.nextGaussian() * 10, random.nextGaussian() * 10, random.nextGaussian() * 10);
+            final Point3 target = new Point3(random.nextGaussian() * spread, random.nextGaussian() * spread, random.nextGaussian() * spread);
+            rays[i] = new Ray(o, target.sub(o));
+        }
+        return rays;
+    }
+
+    /**
+     * Benchmark calling hit of one geometry for the prepared rays
+     */
+    public static Benchmark hit(final String name, final Geometry geo, final Ray[] rays) {
+        return new Benchmark(name) {
+            @Override
+            protected Object run(final int i) {
+                return geo.hit(rays[i & (RAY_COUNT - 1)]);
+            }
+        };
+    }
+
+    /**
+     * Benchmark calling World.hit for a world of random spheres
+     */
+    public static Benchmark worldHit(final int size, final boolean accelerated, final Random random) {
+        final ArrayList<Geometry> geoList = new ArrayList<Geometry>();
+        final double extent = 2 * Math.cbrt(size);
+        for (int i = 0; i < size; i++) {
+            geoList.add(new Sphere(new Point3((random.nextDouble() - 0.5) * extent, (random.nextDouble() - 0.5) * extent,
+                    (random.nextDouble() - 0.5) * extent), 0.5, material));
+        }
+        final World world = new World(new Color(0.1, 0.1, 0.1), geoList, new ArrayList<Light>(), 1.0, accelerated);
+        final Ray[] rays = rays(random, extent / 2);
+        // build the hierarchy before measuring
+        world.hit(rays[0]);
+
+        return new Benchmark("World.hit " + size + " spheres" + (accelerated ? " (BVH)" : " (linear)")) {
+            @Override
+            protected Object run(final int i) {
+                return world.hit(rays[i & (RAY_COUNT - 1)]);
+            }
+        };
+    }
+
+    /**
+     * Benchmark calling World.hit for a forest of instanced trees sharing one subtree
+     */
+    public static Benchmark forestHit(final int size, final Random random) {
+        final ArrayList<Geometry> tree = new ArrayList<Geometry>();
+        tree.add(new Sphere(new Point3(0, 2, 0), 1, material));
+        tree.add(new Triangle(new Point3(-0.2, 0, 0), new Point3(0.2, 0, 0), new Point3(0, 1.5, 0), material));
+        final ArrayList<Transform> transforms = new ArrayList<Transform>();
+        final int side = (int) Math.ceil(Math.sqrt(size));
+        for (int i = 0; i < size; i++) {
+            transforms.add(new Transform().translate((i % side - side / 2) * 3, 0, (i / side - side / 2) * 3)
+                    .rotateY(random.nextDouble() * 2 * Math.PI).scale(1, 1 + random.nextDouble(), 1));
+        }
+        final World world = new World(new Color(0.1, 0.1, 0.1), new ArrayList<Geometry>(Node.instances(tree, transforms)),
+                new ArrayList<Light>(), 1.0);
+        final Ray[] rays = rays(random, side * 1.5);
+        world.hit(rays[0]);
+
+        return new Benchmark("World.hit " + size + " instanced trees (BVH)") {
+            @Override
+            protected Object run(final int i) {
+                return world.hit(rays[i & (RAY_COUNT - 1)]);
+            }
+        };
+    }
+
+    /**
+     * Main Class, runs all intersection benchmarks
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        final Random random = new Random(Benchmark.SEED);
+        final Ray[] rays = rays(random, 1);
+
+        hit("Sphere.hit", new Sphere(new Point3(0, 0, 0), 1, material), rays).measure();
+        hit("Plane.hit", new Plane(new Point3(0, 0, 0), new Normal3(0, 1, 0), material), rays).measure();
+        hit("Triangle.hit", new Triangle(new Point3(-1, -1, 0), new Point3(1, -1, 0), new Point3(0, 1, 0), material), rays).measure();
+        hit("Triangle.hit (watertight)", new Triangle(new Point3(-1, -1, 0), new Point3(1, -1, 0), new Point3(0, 1, 0), material, true), rays).measure();
+        hit("AxisAlignedBox.hit", new AxisAlignedBox(new Point3(-1, -1, -1), new Point3(1, 1, 1), material), rays).measure();
+
+        final ArrayList<Geometry> nodeList = new ArrayList<Geometry>();
+        nodeList.add(new Sphere(new Point3(0, 0, 0), 1, material));
+        hit("Node.hit (scaled sphere)", new Node(nodeList, new Transform().scale(2, 1, 1)), rays).measure();
+
+        for (int size : new int[]{10, 100, 1000, 10000}) {
+            worldHit(size, true, random).measure();
+            worldHit(size, false, random).measure();
+        }
+        forestHit(10000, random).measure();
+    }
+}
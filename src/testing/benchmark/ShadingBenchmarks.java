@@ -0,0 +1,140 @@
+package testing.benchmark;
+
+import color.Color;
+import geometry.Geometry;
+import geometry.Hit;
+import geometry.Plane;
+import geometry.Sphere;
+import light.Light;
+import light.PointLight;
+import material.LambertMaterial;
+import material.Material;
+import material.PhongMaterial;
+import material.ReflectiveMaterial;
+import material.SingleColorMaterial;
+import material.Tracer;
+import material.TransparentMaterial;
+import mathlib.Normal3;
+import mathlib.Point3;
+import ray.Ray;
+import texture.ImageTexture;
+import texture.InterpolatedImageTexture;
+import texture.MappedTexture;
+import texture.MipMapTexture;
+import texture.SingleColorTexture;
+import texture.Texture;
+import texture.TiledTextureFile;
+import world.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ShadingBenchmarks measures colorFor of every material on hits of a sphere
+ * standing on a plane lit by a shadow casting point light, and getColor of the image textures,
+ * the mip-mapped texture near and far away and the memory-mapped texture.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public class ShadingBenchmarks {
+
+    public static final Texture red   = new SingleColorTexture(new Color(1, 0, 0));
+    public static final Texture white = new SingleColorTexture(new Color(1, 1, 1));
+    public static final Material ground = new LambertMaterial(new SingleColorTexture(new Color(0.8, 0.8, 0.8)));
+
+    /**
+     * Benchmark calling colorFor for hits of a sphere with the given material
+     */
+    public static Benchmark colorFor(final Material material, final Random random) {
+        final Sphere sphere = new Sphere(new Point3(0, 1, 0), 1, material);
+        final ArrayList<Geometry> geoList = new ArrayList<Geometry>();
+        geoList.add(new Plane(new Point3(0, 0, 0), new Normal3(0, 1, 0), ground));
+        geoList.add(sphere);
+        final ArrayList<Light> lights = new ArrayList<Light>();
+        lights.add(new PointLight(new Color(1, 1, 1), new Point3(4, 4, 4), true));
+        final World world = new World(new Color(0.1, 0.1, 0.1), geoList, lights, 1.0);
+
+        final List<Hit> hitList = new ArrayList<Hit>();
+        while (hitList.size() < IntersectionBenchmarks.RAY_COUNT) {
+            final Point3 o = new Point3(random.nextGaussian() * 2 + 6, random.nextGaussian() * 2 + 4, random.nextGaussian() * 2 + 6);
+            final Point3 target = new Point3(random.nextGaussian() * 0.5, 1 + random.nextGaussian() * 0.5, random.nextGaussian() * 0.5);
+            final Hit hit = sphere.hit(new Ray(o, target.sub(o)));
+            if (hit != null) hitList.add(hit);
+        }
+        final Hit[] hits = hitList.toArray(new Hit[hitList.size()]);
+        final Tracer tracer = new Tracer(world);
+
+        return new Benchmark(material.getClass().getSimpleName() + ".colorFor") {
+            @Override
+            protected Object run(final int i) {
+                return material.colorFor(hits[i & (IntersectionBenchmarks.RAY_COUNT - 1)], tracer);
+            }
+        };
+    }
+
+    /**
+     * Benchmark calling getColor with random texture coordinates
+     */
+    public static Benchmark getColor(final String name, final Texture texture, final Random random) {
+        return getColor(name, texture, Double.NaN, random);
+    }
+
+    /**
+     * Benchmark calling getColor with random texture coordinates seen from the given distance, NaN for no distance
+     */
+    public static Benchmark getColor(final String name, final Texture texture, final double distance, final Random random) {
+        final double[] uv = new double[2 * IntersectionBenchmarks.RAY_COUNT];
+        for (int i = 0; i < uv.length; i++) {
+            uv[i] = random.nextDouble();
+        }
+        return new Benchmark(name + ".getColor" + (Double.isNaN(distance) ? "" : " (distance " + distance + ")")) {
+            @Override
+            protected Object run(final int i) {
+                final int k = 2 * (i & (IntersectionBenchmarks.RAY_COUNT - 1));
+                return Double.isNaN(distance) ? texture.getColor(uv[k], uv[k + 1]) : texture.getColor(uv[k], uv[k + 1], distance);
+            }
+        };
+    }
+
+    /**
+     * Main Class, runs all shading benchmarks
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        final Random random = new Random(Benchmark.SEED);
+
+        colorFor(new SingleColorMaterial(red), random).measure();
+        colorFor(new LambertMaterial(red), random).measure();
+        colorFor(new PhongMaterial(red, white, 64), random).measure();
+        colorFor(new ReflectiveMaterial(red, white, 64, new SingleColorTexture(new Color(0.5, 0.5, 0.5))), random).measure();
+        colorFor(new TransparentMaterial(1.33), random).measure();
+
+        getColor("ImageTexture", new ImageTexture("earth_day_small.jpg"), random).measure();
+        getColor("InterpolatedImageTexture", new InterpolatedImageTexture("earth_day_small.jpg"), random).measure();
+        final Texture mipMap = new MipMapTexture("earth_day.jpg", Math.PI / 4 / 480, 2 * Math.PI);
+        getColor("InterpolatedImageTexture (earth_day.jpg)", new InterpolatedImageTexture("earth_day.jpg"), random).measure();
+        getColor("MipMapTexture", mipMap, 4, random).measure();
+        getColor("MipMapTexture", mipMap, 64, random).measure();
+
+        // the tiled texel file is written to the temporary directory of the system, not into the sources
+        File tiled = null;
+        try {
+            tiled = File.createTempFile("earth_day", ".rttx");
+            tiled.deleteOnExit();
+            TiledTextureFile.convert(MappedTexture.IMAGE_DIR + "/earth_day.jpg", tiled.getPath(), TiledTextureFile.DEFAULT_TILE_SIZE);
+            getColor("MappedTexture", new MappedTexture(tiled), random).measure();
+            getColor("MappedTexture (1 MB budget)", new MappedTexture(tiled, 1 << 20), random).measure();
+        } catch (IOException ex) {
+            System.err.println("Can't convert image: " + ex.getMessage());
+        } finally {
+            if (tiled != null && !tiled.delete()) {
+                System.err.println("Can't delete " + tiled);
+            }
+        }
+    }
+}
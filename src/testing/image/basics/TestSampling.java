@@ -15,6 +15,7 @@ import mathlib.Point3;
 import mathlib.Transform;
 import mathlib.Vector3;
 import sampling.SamplingPattern;
+import sampling.SobolSequence;
 import texture.SingleColorTexture;
 import world.World;
 
@@ -44,6 +45,9 @@ public class TestSampling {
         
         PerspectiveCamera camera2 = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, new SamplingPattern(4, 4));
         runSampled(camera2);
+
+        PerspectiveCamera camera3 = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, new SobolSequence(16));
+        runSampled(camera3);
     }
     
     public static void runSampled(Camera camera){
@@ -0,0 +1,236 @@
+package testing.image.basics;
+
+import camera.PerspectiveCamera;
+import color.Color;
+import geometry.Geometry;
+import geometry.Plane;
+import geometry.Sphere;
+import image.basics.ExrWriter;
+import image.basics.FrameBuffer;
+import image.basics.RayTracer;
+import image.basics.TileOrder;
+import image.basics.TileScheduler;
+import light.Light;
+import light.PointLight;
+import material.LambertMaterial;
+import material.PhongMaterial;
+import mathlib.Normal3;
+import mathlib.Point3;
+import mathlib.Vector3;
+import sampling.SamplingPattern;
+import texture.SingleColorTexture;
+import world.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * TestsHdrWriter checks the half float conversion of ExrWriter and reads back the EXR and PFM files
+ * of a small rendering, comparing every pixel with the frame buffer of the same rendering.
+ * The image size is no multiple of the tile size, so the tiles at the right and bottom edge are partial.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public class TestsHdrWriter {
+
+    public static final int WIDTH = 37;
+    public static final int HEIGHT = 23;
+    public static final int TILE_SIZE = 16;
+
+    private static int failures;
+
+    /**
+     * Main Class, tests toHalf and the files written by ExrWriter and PfmWriter
+     *
+     * @param args not used
+     * @throws IOException if a file can not be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        testToHalf();
+
+        final RayTracer rayTracer = rayTracer();
+        try {
+            final FrameBuffer expected = rayTracer.generateFrameBuffer(WIDTH, HEIGHT);
+
+            final File exr = File.createTempFile("hdr_test", ".exr");
+            try {
+                rayTracer.saveHdrImage(WIDTH, HEIGHT, exr);
+                testExr(ByteBuffer.wrap(Files.readAllBytes(exr.toPath())).order(ByteOrder.LITTLE_ENDIAN), expected);
+            } finally {
+                Files.deleteIfExists(exr.toPath());
+            }
+
+            final File pfm = File.createTempFile("hdr_test", ".pfm");
+            try {
+                rayTracer.saveHdrImage(WIDTH, HEIGHT, pfm);
+                testPfm(ByteBuffer.wrap(Files.readAllBytes(pfm.toPath())).order(ByteOrder.LITTLE_ENDIAN), expected);
+            } finally {
+                Files.deleteIfExists(pfm.toPath());
+            }
+        } finally {
+            rayTracer.shutdown();
+        }
+
+        System.out.println(failures == 0 ? "OK" : "FAILED: " + failures + " checks");
+        if (failures != 0) System.exit(1);
+    }
+
+    /**
+     * checks the conversion of zero, subnormals, ties, the largest half, overflow, infinity and NaN
+     */
+    private static void testToHalf() {
+        checkHalf("0", 0f, 0x0000);
+        checkHalf("-0", -0f, 0x8000);
+        checkHalf("1", 1f, 0x3C00);
+        checkHalf("-2", -2f, 0xC000);
+        // subnormals
+        checkHalf("smallest subnormal 2^-24", 0x1p-24f, 0x0001);
+        checkHalf("largest subnormal 1023 * 2^-24", 1023 * 0x1p-24f, 0x03FF);
+        checkHalf("smallest normal 2^-14", 0x1p-14f, 0x0400);
+        checkHalf("2^-26 underflows to 0", 0x1p-26f, 0x0000);
+        // ties round to the even half
+        checkHalf("tie 2^-25 to 0", 0x1p-25f, 0x0000);
+        checkHalf("just above the tie 2^-25", Math.nextUp(0x1p-25f), 0x0001);
+        checkHalf("tie 3 * 2^-25 to 2 * 2^-24", 3 * 0x1p-25f, 0x0002);
+        checkHalf("tie 1 + 2^-11 to 1", 1 + 0x1p-11f, 0x3C00);
+        checkHalf("tie 1 + 3 * 2^-11 to 1 + 2^-9", 1 + 3 * 0x1p-11f, 0x3C02);
+        checkHalf("just above the tie 1 + 2^-11", Math.nextUp(1 + 0x1p-11f), 0x3C01);
+        // the largest half and overflow
+        checkHalf("65504", 65504f, 0x7BFF);
+        checkHalf("just below 65520", Math.nextDown(65520f), 0x7BFF);
+        checkHalf("65520 rounds to infinity", 65520f, 0x7C00);
+        checkHalf("-65520 rounds to -infinity", -65520f, 0xFC00);
+        checkHalf("1e10", 1e10f, 0x7C00);
+        checkHalf("infinity", Float.POSITIVE_INFINITY, 0x7C00);
+        checkHalf("-infinity", Float.NEGATIVE_INFINITY, 0xFC00);
+        checkHalf("NaN", Float.NaN, 0x7E00);
+    }
+
+    private static void checkHalf(final String name, final float value, final int expected) {
+        final int half = ExrWriter.toHalf(value);
+        if (half != expected) {
+            fail("toHalf(" + name + ") = 0x" + Integer.toHexString(half) + ", expected 0x" + Integer.toHexString(expected));
+        }
+    }
+
+    /**
+     * reads magic number, version, header, offset table and every tile chunk of the EXR file
+     */
+    private static void testExr(final ByteBuffer file, final FrameBuffer expected) {
+        check("EXR magic number", file.getInt() == 20000630);
+        check("EXR version 2, single part tiled", file.getInt() == (2 | 0x200));
+
+        // attributes up to the empty name, the tile description is checked
+        String name;
+        while (!(name = string(file)).isEmpty()) {
+            final String type = string(file);
+            final int size = file.getInt();
+            if (name.equals("tiles")) {
+                check("EXR tile description", type.equals("tiledesc") && size == 9
+                        && file.getInt() == TILE_SIZE && file.getInt() == TILE_SIZE && file.get() == 0);
+            } else if (name.equals("dataWindow")) {
+                check("EXR data window", file.getInt() == 0 && file.getInt() == 0
+                        && file.getInt() == WIDTH - 1 && file.getInt() == HEIGHT - 1);
+            } else {
+                file.position(file.position() + size);
+            }
+        }
+
+        final int tilesX = (WIDTH + TILE_SIZE - 1) / TILE_SIZE;
+        final int tilesY = (HEIGHT + TILE_SIZE - 1) / TILE_SIZE;
+        final long[] offsets = new long[tilesX * tilesY];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = file.getLong();
+        }
+        final int tableEnd = file.position();
+
+        int differences = 0;
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                final long offset = offsets[ty * tilesX + tx];
+                if (offset < tableEnd || offset >= file.limit()) {
+                    fail("EXR offset of tile " + tx + ", " + ty + " is outside the chunks: " + offset);
+                    continue;
+                }
+                file.position((int) offset);
+                final int width = Math.min(TILE_SIZE, WIDTH - tx * TILE_SIZE);
+                final int height = Math.min(TILE_SIZE, HEIGHT - ty * TILE_SIZE);
+                check("EXR chunk header of tile " + tx + ", " + ty, file.getInt() == tx && file.getInt() == ty
+                        && file.getInt() == 0 && file.getInt() == 0 && file.getInt() == 2 * 3 * width * height);
+                // every row of the tile holds the channels B, G, R one after the other
+                for (int y = 0; y < height; y++) {
+                    for (int c = 2; c >= 0; c--) {
+                        for (int x = 0; x < width; x++) {
+                            final float value = expected.pixels[expected.index(tx * TILE_SIZE + x, ty * TILE_SIZE + y) + c];
+                            if ((file.getShort() & 0xFFFF) != ExrWriter.toHalf(value)) differences++;
+                        }
+                    }
+                }
+            }
+        }
+        check("EXR " + differences + " half floats differ from the frame buffer", differences == 0);
+    }
+
+    /**
+     * reads the header of the PFM file and compares its rows, stored from the bottom to the top
+     */
+    private static void testPfm(final ByteBuffer file, final FrameBuffer expected) {
+        final byte[] header = ("PF\n" + WIDTH + " " + HEIGHT + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII);
+        final byte[] actual = new byte[header.length];
+        file.get(actual);
+        check("PFM header", new String(actual, StandardCharsets.US_ASCII).equals(new String(header, StandardCharsets.US_ASCII)));
+        check("PFM size", file.remaining() == 12 * WIDTH * HEIGHT);
+
+        int differences = 0;
+        for (int y = HEIGHT - 1; y >= 0; y--) {
+            for (int i = expected.index(0, y), end = i + 3 * WIDTH; i < end; i++) {
+                if (Float.floatToIntBits(file.getFloat()) != Float.floatToIntBits(expected.pixels[i])) differences++;
+            }
+        }
+        check("PFM " + differences + " floats differ from the frame buffer", differences == 0);
+    }
+
+    /**
+     * builds a small scene with a light bright enough for radiance above 1
+     */
+    private static RayTracer rayTracer() {
+        final ArrayList<Geometry> geoList = new ArrayList<Geometry>();
+        geoList.add(new Plane(new Point3(0, 0, 0), new Normal3(0, 1, 0), new LambertMaterial(new SingleColorTexture(new Color(0.8, 0.8, 0.8)))));
+        geoList.add(new Sphere(new Point3(0, 1, 0), 1, new PhongMaterial(new SingleColorTexture(new Color(1, 0.2, 0.1)),
+                new SingleColorTexture(new Color(1, 1, 1)), 32)));
+        final ArrayList<Light> lights = new ArrayList<Light>();
+        lights.add(new PointLight(new Color(3, 3, 3), new Point3(4, 4, 4), true));
+        final World world = new World(new Color(0.1, 0.1, 0.1), geoList, lights, 1.0);
+        final PerspectiveCamera camera = new PerspectiveCamera(new Point3(4, 3, 4), new Vector3(-1, -0.5, -1), new Vector3(0, 1, 0),
+                Math.PI / 4, new SamplingPattern(2, 2));
+        return new RayTracer(world, camera, new TileScheduler(2, TILE_SIZE, TileOrder.SPIRAL));
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        final StringBuilder value = new StringBuilder();
+        byte b;
+        while ((b = buffer.get()) != 0) {
+            value.append((char) b);
+        }
+        return value.toString();
+    }
+
+    private static void check(final String name, final boolean passed) {
+        if (!passed) {
+            fail(name);
+        } else {
+            System.out.println("passed: " + name);
+        }
+    }
+
+    private static void fail(final String message) {
+        failures++;
+        System.out.println("FAILED: " + message);
+    }
+}
@@ -79,9 +79,9 @@ public class TestsRayTracer {
     public static Point3 a = new Point3(0, 0, -1);
     public static Point3 b = new Point3(1, 0, -1);
     public static Point3 c = new Point3(1, 1, -1);
-    public static Normal3 an = b.sub(a).x(c.sub(a)).mul(1 / (b.sub(a).x(c.sub(a))).magnitude).normalized().asNormal();
-    public static Normal3 bn = a.sub(b).x(c.sub(b)).mul(1 / (a.sub(b).x(c.sub(b))).magnitude).normalized().asNormal();
-    public static Normal3 cn = a.sub(c).x(b.sub(c)).mul(1 / (a.sub(c).x(b.sub(c))).magnitude).normalized().asNormal();
+    public static Normal3 an = b.sub(a).x(c.sub(a)).mul(1 / (b.sub(a).x(c.sub(a))).magnitude()).normalized().asNormal();
+    public static Normal3 bn = a.sub(b).x(c.sub(b)).mul(1 / (a.sub(b).x(c.sub(b))).magnitude()).normalized().asNormal();
+    public static Normal3 cn = a.sub(c).x(b.sub(c)).mul(1 / (a.sub(c).x(b.sub(c))).magnitude()).normalized().asNormal();
     public static Material triangleLambert_material = new LambertMaterial(new SingleColorTexture( new Color(1, 1, 0)));
     public static Material trianglePhong_material   = new PhongMaterial(new SingleColorTexture( new Color(1, 1, 0)), new SingleColorTexture( new Color(1, 1, 1)), 64);
 
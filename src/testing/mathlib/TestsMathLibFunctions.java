@@ -59,7 +59,7 @@ public class TestsMathLibFunctions {
 
         System.out.println("Zeigen Sie, dass |(1 1 1)| = Math.sqrt(3) ist!");
         Vector3 v_magnitude = new Vector3(1, 1, 1);
-        System.out.println("magnitude of " + v_magnitude + "\nmagnitude^2 = " + Math.pow(v_magnitude.magnitude, 2) + "\n\n");
+        System.out.println("magnitude of " + v_magnitude + "\nmagnitude^2 = " + Math.pow(v_magnitude.magnitude(), 2) + "\n\n");
 
         //Schema B
         System.out.println("Zeigen Sie, dass (1 2 3) * 0.5 = (0.5 1 1.5) ist, wobei (1 2 3) ein Vector ist!");
@@ -0,0 +1,183 @@
+package testing.world;
+
+import color.Color;
+import geometry.AxisAlignedBox;
+import geometry.Geometry;
+import geometry.Hit;
+import geometry.Node;
+import geometry.Plane;
+import geometry.Sphere;
+import geometry.Triangle;
+import geometry.TriangleMesh;
+import light.Light;
+import material.LambertMaterial;
+import material.Material;
+import mathlib.Normal3;
+import mathlib.Point3;
+import mathlib.Transform;
+import ray.Ray;
+import texture.SingleColorTexture;
+import world.World;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * TestsAcceleratedWorld compares World.hit and World.occluded with and without the BVH
+ * for random rays through a scene of spheres, planes, boxes, triangles, meshes and instances.
+ * Both worlds share the same geometries, so every difference comes from the hierarchy.
+ *
+ * @author group raspi, CG1, Beuth-Hochschule
+ * @version 1.0
+ */
+public class TestsAcceleratedWorld {
+
+    public static final Material material = new LambertMaterial(new SingleColorTexture(new Color(0.5, 0.5, 0.5)));
+
+    /**
+     * number of random rays
+     */
+    public static final int RAY_COUNT = 100000;
+
+    /**
+     * Main Class, compares the accelerated with the linear World
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        final ArrayList<Geometry> geoList = scene(random);
+
+        final World linear = new World(new Color(0.1, 0.1, 0.1), geoList, new ArrayList<Light>(), 1.0, false);
+        final World accelerated = new World(new Color(0.1, 0.1, 0.1), geoList, new ArrayList<Light>(), 1.0, true);
+
+        int hits = 0;
+        int hitMismatches = 0;
+        int occluded = 0;
+        int occludedMismatches = 0;
+        for (int i = 0; i < RAY_COUNT; i++) {
+            final Ray ray = ray(random);
+
+            final Hit expected = linear.hit(ray);
+            final Hit actual = accelerated.hit(ray);
+            if (expected != null) hits++;
+            if (!sameHit(expected, actual)) {
+                hitMismatches++;
+                if (hitMismatches <= 10) System.out.println("hit differs for " + ray + ":\n  linear " + expected + "\n  BVH    " + actual);
+            }
+
+            final double maxT = random.nextDouble() * 40;
+            final boolean expectedOccluded = linear.occluded(ray, maxT);
+            if (expectedOccluded) occluded++;
+            if (expectedOccluded != accelerated.occluded(ray, maxT)) {
+                occludedMismatches++;
+                if (occludedMismatches <= 10) System.out.println("occluded differs for " + ray + " up to " + maxT);
+            }
+        }
+
+        System.out.println(geoList.size() + " geometries, " + RAY_COUNT + " rays");
+        System.out.println("hit:      " + hits + " hits, " + hitMismatches + " mismatches");
+        System.out.println("occluded: " + occluded + " occluded, " + occludedMismatches + " mismatches");
+        System.out.println(hitMismatches == 0 && occludedMismatches == 0 ? "OK" : "FAILED");
+        if (hitMismatches != 0 || occludedMismatches != 0) System.exit(1);
+    }
+
+    /**
+     * Method builds the test scene, every kind of geometry is included
+     *
+     * @param random random generator
+     * @return list of geometries
+     */
+    public static ArrayList<Geometry> scene(final Random random) {
+        final ArrayList<Geometry> geoList = new ArrayList<Geometry>();
+        for (int i = 0; i < 200; i++) {
+            geoList.add(new Sphere(point(random, 10), 0.2 + random.nextDouble(), material));
+        }
+        for (int i = 0; i < 50; i++) {
+            final Point3 lbf = point(random, 10);
+            geoList.add(new AxisAlignedBox(lbf, new Point3(lbf.x + random.nextDouble() * 2, lbf.y + random.nextDouble() * 2,
+                    lbf.z + random.nextDouble() * 2), material));
+        }
+        for (int i = 0; i < 50; i++) {
+            final Point3 a = point(random, 10);
+            geoList.add(new Triangle(a, a.add(point(random, 1).sub(new Point3(0, 0, 0))),
+                    a.add(point(random, 1).sub(new Point3(0, 0, 0))), material));
+        }
+        geoList.add(new Plane(new Point3(0, -12, 0), new Normal3(0, 1, 0), material));
+        geoList.add(new Plane(new Point3(13, 0, 0), new Normal3(-1, 0.2, 0.1), material));
+
+        final TriangleMesh mesh = mesh(random, 300);
+        geoList.add(mesh);
+
+        // a plain Node with enough children to build its own hierarchy
+        final ArrayList<Geometry> children = new ArrayList<Geometry>();
+        for (int i = 0; i < 20; i++) {
+            children.add(new Sphere(point(random, 1), 0.1 + random.nextDouble() * 0.3, material));
+        }
+        geoList.add(new Node(children, new Transform().translate(2, 3, -4).rotateY(0.7).scale(2, 1, 1.5)));
+
+        // instances sharing one subtree of a mesh and a sphere
+        final ArrayList<Geometry> subtree = new ArrayList<Geometry>();
+        subtree.add(mesh(random, 40));
+        subtree.add(new Sphere(new Point3(0, 1.5, 0), 0.5, material));
+        final ArrayList<Transform> transforms = new ArrayList<Transform>();
+        for (int i = 0; i < 30; i++) {
+            final Point3 p = point(random, 9);
+            transforms.add(new Transform().translate(p.x, p.y, p.z).rotateX(random.nextDouble() * Math.PI)
+                    .rotateY(random.nextDouble() * 2 * Math.PI).scale(0.5 + random.nextDouble(), 0.5 + random.nextDouble(), 1));
+        }
+        geoList.addAll(Node.instances(subtree, transforms));
+        return geoList;
+    }
+
+    /**
+     * Method builds a mesh of randomly placed small triangles around the origin
+     *
+     * @param random random generator
+     * @param count  number of triangles
+     * @return new TriangleMesh
+     */
+    private static TriangleMesh mesh(final Random random, final int count) {
+        final float[] positions = new float[count * 9];
+        final int[] indices = new int[count * 3];
+        for (int i = 0; i < count; i++) {
+            final Point3 a = point(random, 3);
+            for (int v = 0; v < 3; v++) {
+                positions[i * 9 + v * 3] = (float) (a.x + random.nextGaussian() * 0.5);
+                positions[i * 9 + v * 3 + 1] = (float) (a.y + random.nextGaussian() * 0.5);
+                positions[i * 9 + v * 3 + 2] = (float) (a.z + random.nextGaussian() * 0.5);
+                indices[i * 3 + v] = i * 3 + v;
+            }
+        }
+        return new TriangleMesh(positions, indices, material);
+    }
+
+    /**
+     * Method returns a ray starting inside or around the scene, aimed at a random point of it
+     *
+     * @param random random generator
+     * @return new Ray
+     */
+    private static Ray ray(final Random random) {
+        final Point3 o = point(random, random.nextBoolean() ? 10 : 25);
+        final Point3 target = point(random, 10);
+        return new Ray(o, target.sub(o));
+    }
+
+    /**
+     * Method returns a random point in the cube of the given half size around the origin
+     */
+    private static Point3 point(final Random random, final double extent) {
+        return new Point3((random.nextDouble() * 2 - 1) * extent, (random.nextDouble() * 2 - 1) * extent,
+                (random.nextDouble() * 2 - 1) * extent);
+    }
+
+    /**
+     * Method checks whether both hits are missing or lie at the same distance. The geometry is not compared,
+     * coincident surfaces may be reported in any order.
+     */
+    private static boolean sameHit(final Hit a, final Hit b) {
+        if (a == null || b == null) return a == b;
+        return Math.abs(a.t - b.t) <= 1e-9 * Math.max(1.0, Math.abs(a.t));
+    }
+}
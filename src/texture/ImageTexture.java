@@ -3,10 +3,8 @@ package texture;
 
 import color.Color;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 /**
  * ImageTexture for getting Color of texture
@@ -17,48 +15,51 @@ import java.io.IOException;
 public class ImageTexture implements Texture {
 
     public final static String IMAGE_DIR = "src/assets";
-    public String imageURL;
-    public BufferedImage image;
+    public final String imageURL;
 
+    /**
+     * texels of the last lookup, taken from the TextureCache again once they were evicted
+     */
+    private volatile WeakReference<TexelStore> texels;
+
+    /**
+     * constructor for ImageTexture, the image is read from the TextureCache on the first lookup
+     *
+     * @param imageUrl file name of the image in the IMAGE_DIR
+     */
     public ImageTexture(final String imageUrl) {
-        this.imageURL = null;
-        this.image = null;
-        try {
-            this.image = ImageIO.read(new File(IMAGE_DIR + "/" + imageUrl));
-            this.imageURL = IMAGE_DIR + "/" + imageUrl;
-        } catch (IOException ex) {
+        this.imageURL = IMAGE_DIR + "/" + imageUrl;
+        if (!new File(this.imageURL).isFile()) {
             System.err.println("Can't read image");
+        }
+    }
 
+    /**
+     * @return decoded texels of the image
+     */
+    public TexelStore texels() {
+        final WeakReference<TexelStore> reference = this.texels;
+        TexelStore store = reference == null ? null : reference.get();
+        if (store == null) {
+            store = TextureCache.SHARED.get(this.imageURL);
+            this.texels = new WeakReference<TexelStore>(store);
         }
+        store.markUsed();
+        return store;
     }
 
     /**
      * Get Color of texture coordinations
      */
     public Color getColor(final double u, final double v) {
-        double coordinateU = u % 1.0;
-        double coordinateV = v % 1.0;
-
-        if (coordinateU < 0.0) {
-            coordinateU += 1.0;
-        }
-
-        if (coordinateV < 0.0) {
-            coordinateV += 1.0;
-        }
-
-        final double x = (this.image.getWidth() - 1) * coordinateU;
-        //final double y = (this.image.getHeight() - 1)  * coordinateV;
-        //System.out.println( "(" + u + "/" + v + ")" );
-        final double y = (this.image.getHeight() - 1) - ((this.image.getHeight()-1) * coordinateV);
-
-        int argb = this.image.getRGB((int) Math.round(x), (int) Math.round(y));
-
-        int r = (argb >>> 16) & 0xFF;
-        int g = (argb >>> 8) & 0xFF;
-        int b = (argb >>> 0) & 0xFF;
+        return this.texels().nearest(u, v);
+    }
 
-        return new Color( r/255.0 , g/255.0 , b/255.0 );
+    /**
+     * Get Color of texture coordinations, the distance is ignored
+     */
+    public Color getColor(final double u, final double v, final double distance) {
+        return this.getColor(u, v);
     }
 
 
@@ -81,7 +82,7 @@ public class ImageTexture implements Texture {
     public int hashCode() {
         int result;
 
-        result = this.image.hashCode();
+        result = this.imageURL.hashCode();
         return result;
     }
 
@@ -96,7 +97,7 @@ public class ImageTexture implements Texture {
         if (o == null || this == o || o.getClass() != this.getClass()) return false;
 
         ImageTexture texture = (ImageTexture) o;
-        return (this.image.equals(texture.image));
+        return (this.imageURL.equals(texture.imageURL));
     }
 
     /**
@@ -110,11 +111,6 @@ public class ImageTexture implements Texture {
     @SuppressWarnings("NullableProblems")
     @Override
     public int compareTo(final Texture texture) {
-        for (int x = 0; x < this.image.getWidth(); x++) {
-            for (int y = 0; y < this.image.getHeight(); y++) {
-
-            }
-        }
         if (this.getColor(1, 1).compareTo(texture.getColor(1, 1)) != 0)
             return this.getColor(1, 1).compareTo(texture.getColor(1, 1));
         return 0;
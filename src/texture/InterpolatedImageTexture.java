@@ -3,10 +3,8 @@ package texture;
 
 import color.Color;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 /**
  * SingleColorTexture for getting Color of texture
@@ -17,67 +15,51 @@ import java.io.IOException;
 public class InterpolatedImageTexture implements Texture {
 
     public final static String IMAGE_DIR = "src/assets";
-    public String imageURL;
-    public BufferedImage image;
+    public final String imageURL;
 
+    /**
+     * texels of the last lookup, taken from the TextureCache again once they were evicted
+     */
+    private volatile WeakReference<TexelStore> texels;
+
+    /**
+     * constructor for InterpolatedImageTexture, the image is read from the TextureCache on the first lookup
+     *
+     * @param imageUrl file name of the image in the IMAGE_DIR
+     */
     public InterpolatedImageTexture(final String imageUrl) {
-        this.imageURL = null;
-        this.image = null;
-        try {
-            this.image = ImageIO.read(new File(IMAGE_DIR + "/" + imageUrl));
-            this.imageURL = IMAGE_DIR + "/" + imageUrl;
-        } catch (IOException ex) {
+        this.imageURL = IMAGE_DIR + "/" + imageUrl;
+        if (!new File(this.imageURL).isFile()) {
             System.err.println("Can't read image");
+        }
+    }
 
+    /**
+     * @return decoded texels of the image
+     */
+    public TexelStore texels() {
+        final WeakReference<TexelStore> reference = this.texels;
+        TexelStore store = reference == null ? null : reference.get();
+        if (store == null) {
+            store = TextureCache.SHARED.get(this.imageURL);
+            this.texels = new WeakReference<TexelStore>(store);
         }
+        store.markUsed();
+        return store;
     }
 
     /**
      * Get Color of texture coordinations
      */
     public Color getColor(final double u, final double v) {
-
-        final double coordinateU = this.getRoundValOfDouble(u);
-        final double coordinateV = this.getRoundValOfDouble(v);
-
-        final double x = (this.image.getWidth() - 1) * coordinateU;
-        final double y = (this.image.getHeight() - 1) - ((this.image.getHeight()-1) * coordinateV);
-
-        final double xInterpolated = x - Math.floor(x);
-        final double yInterpolated = y - Math.floor(y);
-
-        final Color colorFF = this.getColorOfImagePosition((int) Math.floor(x), (int) Math.floor(y));
-        final Color colorFC = this.getColorOfImagePosition((int) Math.ceil(x), (int) Math.floor(y));
-        final Color colorCF = this.getColorOfImagePosition((int) Math.floor(x), (int) Math.ceil(y));
-        final Color colorCC = this.getColorOfImagePosition((int) Math.ceil(x), (int) Math.ceil(y));
-
-        final Color colorFFFC = colorFF.mul(1.0 - xInterpolated).add(colorFC.mul(xInterpolated));
-        final Color colorCFCC = colorCF.mul(1.0 - xInterpolated).add(colorCC.mul(xInterpolated));
-
-        return colorFFFC.mul(1.0 - yInterpolated).add(colorCFCC.mul(yInterpolated));
-
-    }
-
-    private double getRoundValOfDouble(final double input) {
-        double out = input % 1.0;
-        if (out < 0.0) {
-            out = out + 1.0;
-        }
-        return out;
+        return this.texels().bilinear(u, v);
     }
 
     /**
-     * Get Color of image on texture coordinates
+     * Get Color of texture coordinations, the distance is ignored
      */
-    private final Color getColorOfImagePosition(final int x, final int y) {
-//        final java.awt.Color colorRGB = new java.awt.Color(this.image.getRGB(x,y));
-//        return new Color(colorRGB);
-
-        int argb = this.image.getRGB(x,y);
-        double r = (argb & 0xff0000) >> 16;
-        double g = (argb & 0xff00) >> 8;
-        double b = argb & 0xff;
-        return new Color( r/255.0, g/255.0, b/255.0 );
+    public Color getColor(final double u, final double v, final double distance) {
+        return this.getColor(u, v);
     }
 
     /**
@@ -99,7 +81,7 @@ public class InterpolatedImageTexture implements Texture {
     public int hashCode() {
         int result;
 
-        result = this.image.hashCode();
+        result = this.imageURL.hashCode();
         return result;
     }
 
@@ -114,7 +96,7 @@ public class InterpolatedImageTexture implements Texture {
         if (o == null || this == o || o.getClass() != this.getClass()) return false;
 
         InterpolatedImageTexture texture = (InterpolatedImageTexture) o;
-        return (this.image.equals(texture.image));
+        return (this.imageURL.equals(texture.imageURL));
     }
 
     /**
@@ -128,11 +110,6 @@ public class InterpolatedImageTexture implements Texture {
     @SuppressWarnings("NullableProblems")
     @Override
     public int compareTo(final Texture texture) {
-        for (int x = 0; x < this.image.getWidth(); x++) {
-            for (int y = 0; y < this.image.getHeight(); y++) {
-
-            }
-        }
         if (this.getColor(1, 1).compareTo(texture.getColor(1, 1)) != 0)
             return this.getColor(1, 1).compareTo(texture.getColor(1, 1));
         return 0;
@@ -0,0 +1,398 @@
+package texture;
+
+
+import color.Color;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MappedTexture reads the texels of a tiled texel file (see TiledTextureFile) on demand, so textures larger
+ * than the heap can be used. A tile is copied into the tile cache on its first lookup, out of a memory-mapped
+ * window of whole bands of tiles. At most WINDOWS windows of WINDOW_BYTES (or one band if it is larger) stay
+ * mapped, when another window is needed the least recently used one is released and unmapped once the garbage collector has
+ * collected its buffer.
+ * The tile cache holds at most budget bytes of tiles, when another tile is needed a tile that was not used
+ * since the last sweep is evicted (clock algorithm, an approximation of least recently used). So the memory
+ * of the texture is bounded by the budget plus the mapped windows, whatever the size of the file.
+ * <p/>
+ * Lookups are bilinear like InterpolatedImageTexture and read cached tiles without locking, only loading
+ * a tile is synchronized. The budget defaults to the system property texture.mapped.bytes, 64 MB if not set.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class MappedTexture implements Texture {
+
+    public final static String IMAGE_DIR = "src/assets";
+
+    /**
+     * default budget for the cached tiles of one texture in bytes
+     */
+    public static final long DEFAULT_BUDGET = Long.getLong("texture.mapped.bytes", 64L << 20);
+
+    /**
+     * maximum size of one mapped window of the file in bytes, a window holds at least one band of tiles
+     */
+    public static final long WINDOW_BYTES = 16L << 20;
+
+    /**
+     * number of windows mapped at the same time, a bilinear lookup may need tiles of two bands
+     */
+    public static final int WINDOWS = 2;
+
+    public final String imageURL;
+    public final int width;
+    public final int height;
+    public final int tileSize;
+
+    /**
+     * maximum number of bytes of cached tiles
+     */
+    public final long budget;
+
+    private final int tileBits;
+    private final int tileMask;
+    private final int tilesX;
+    private final long bandBytes;
+    private final int bandsPerWindow;
+
+    /**
+     * mapped windows of the file, the most recently used first, null if not mapped, only used while loading
+     */
+    private final IntBuffer[] windows = new IntBuffer[WINDOWS];
+
+    /**
+     * number of the window in every entry of windows
+     */
+    private final int[] windowNumbers = new int[WINDOWS];
+
+    /**
+     * cached tiles by number of the tile, null if not cached
+     */
+    private final AtomicReferenceArray<int[]> tiles;
+
+    /**
+     * set by every lookup of a tile, cleared by the clock hand
+     */
+    private final boolean[] referenced;
+
+    /**
+     * numbers of the cached tiles in the order of the clock
+     */
+    private final int[] clock;
+    private int hand;
+    private int cached;
+
+    private long loads;
+    private long evictions;
+    private long mappings;
+
+    /**
+     * constructor for MappedTexture with the default budget
+     *
+     * @param imageUrl file name of the tiled texel file in the IMAGE_DIR
+     */
+    public MappedTexture(final String imageUrl) {
+        this(imageUrl, DEFAULT_BUDGET);
+    }
+
+    /**
+     * constructor for MappedTexture
+     *
+     * @param imageUrl file name of the tiled texel file in the IMAGE_DIR
+     * @param budget   maximum number of bytes of cached tiles, at least the four tiles of a lookup are cached
+     * @throws IllegalArgumentException if the file can not be read or is no tiled texel file
+     */
+    public MappedTexture(final String imageUrl, final long budget) {
+        this(new File(IMAGE_DIR, imageUrl), budget);
+    }
+
+    /**
+     * constructor for MappedTexture with the default budget, for tiled texel files outside the IMAGE_DIR
+     *
+     * @param texelFile tiled texel file
+     */
+    public MappedTexture(final File texelFile) {
+        this(texelFile, DEFAULT_BUDGET);
+    }
+
+    /**
+     * constructor for MappedTexture, reads the header of the file
+     *
+     * @param texelFile tiled texel file
+     * @param budget    maximum number of bytes of cached tiles, at least the four tiles of a lookup are cached
+     * @throws IllegalArgumentException if the file can not be read or is no tiled texel file
+     */
+    public MappedTexture(final File texelFile, final long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("The budget has to be positive!");
+        }
+        this.imageURL = texelFile.getPath();
+        this.budget = budget;
+
+        final ByteBuffer header = ByteBuffer.allocate(TiledTextureFile.HEADER_BYTES);
+        try {
+            final RandomAccessFile file = new RandomAccessFile(this.imageURL, "r");
+            try {
+                file.getChannel().read(header, 0);
+            } finally {
+                file.close();
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Can't read texture " + this.imageURL, ex);
+        }
+        header.flip();
+        if (header.remaining() < TiledTextureFile.HEADER_BYTES || header.getInt() != TiledTextureFile.MAGIC) {
+            throw new IllegalArgumentException("No tiled texel file: " + this.imageURL);
+        }
+        this.width = header.getInt();
+        this.height = header.getInt();
+        this.tileSize = header.getInt();
+        if (this.width <= 0 || this.height <= 0 || this.tileSize <= 0 || (this.tileSize & (this.tileSize - 1)) != 0) {
+            throw new IllegalArgumentException("No tiled texel file: " + this.imageURL);
+        }
+
+        this.tileBits = Integer.numberOfTrailingZeros(this.tileSize);
+        this.tileMask = this.tileSize - 1;
+        this.tilesX = (this.width + this.tileMask) >> this.tileBits;
+        final int bands = (this.height + this.tileMask) >> this.tileBits;
+        final long tileBytes = 4L * this.tileSize * this.tileSize;
+        this.bandBytes = tileBytes * this.tilesX;
+        this.bandsPerWindow = (int) Math.max(1, WINDOW_BYTES / this.bandBytes);
+        if (this.bandBytes * this.bandsPerWindow > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The tiles of " + this.imageURL + " are too large to map!");
+        }
+        this.tiles = new AtomicReferenceArray<int[]>(this.tilesX * bands);
+        this.referenced = new boolean[this.tilesX * bands];
+        // a bilinear lookup may need four neighbouring tiles
+        this.clock = new int[(int) Math.max(4, Math.min(this.tilesX * bands, budget / tileBytes))];
+    }
+
+    /**
+     * Get Color of texture coordinations, interpolated bilinear between the four surrounding texels
+     */
+    public Color getColor(final double u, final double v) {
+        final double x = (this.width - 1) * wrap(u);
+        final double y = (this.height - 1) - ((this.height - 1) * wrap(v));
+
+        final int x0 = (int) Math.floor(x);
+        final int y0 = (int) Math.floor(y);
+        final int x1 = (int) Math.ceil(x);
+        final int y1 = (int) Math.ceil(y);
+        final double fx = x - x0;
+        final double fy = y - y0;
+
+        final int ff = texel(x0, y0);
+        final int fc = texel(x1, y0);
+        final int cf = texel(x0, y1);
+        final int cc = texel(x1, y1);
+
+        return new Color(blend(ff >>> 16, fc >>> 16, cf >>> 16, cc >>> 16, fx, fy),
+                blend(ff >>> 8, fc >>> 8, cf >>> 8, cc >>> 8, fx, fy),
+                blend(ff, fc, cf, cc, fx, fy));
+    }
+
+    /**
+     * Get Color of texture coordinations, the distance is ignored
+     */
+    public Color getColor(final double u, final double v, final double distance) {
+        return this.getColor(u, v);
+    }
+
+    /**
+     * @return number of tiles loaded since the texture was created
+     */
+    public synchronized long loads() {
+        return this.loads;
+    }
+
+    /**
+     * @return number of tiles evicted to stay within the budget
+     */
+    public synchronized long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * @return number of windows mapped since the texture was created
+     */
+    public synchronized long mappings() {
+        return this.mappings;
+    }
+
+    /**
+     * @return bytes of the currently cached tiles
+     */
+    public synchronized long cachedBytes() {
+        return 4L * this.cached * this.tileSize * this.tileSize;
+    }
+
+    /**
+     * reads one texel, loading its tile if necessary
+     */
+    private int texel(final int x, final int y) {
+        final int tile = (y >> this.tileBits) * this.tilesX + (x >> this.tileBits);
+        int[] texels = this.tiles.get(tile);
+        if (texels == null) {
+            texels = this.load(tile);
+        }
+        // the flag is only written if it was cleared, so lookups of the same tile share the cache line
+        if (!this.referenced[tile]) {
+            this.referenced[tile] = true;
+        }
+        return texels[(y & this.tileMask) << this.tileBits | (x & this.tileMask)];
+    }
+
+    /**
+     * copies a tile out of its mapped window, evicting a tile if the budget is used up
+     */
+    private synchronized int[] load(final int tile) {
+        int[] texels = this.tiles.get(tile);
+        if (texels != null) {
+            return texels;
+        }
+        final int slot;
+        if (this.cached < this.clock.length) {
+            slot = this.cached++;
+        } else {
+            // the hand clears the reference bits until it finds a tile that was not used since the last sweep,
+            // every tile gets at most one second chance per call, so lookups setting bits meanwhile can not keep it going
+            int chances = this.clock.length;
+            while (this.referenced[this.clock[this.hand]] && chances-- > 0) {
+                this.referenced[this.clock[this.hand]] = false;
+                this.hand = (this.hand + 1) % this.clock.length;
+            }
+            this.tiles.set(this.clock[this.hand], null);
+            this.evictions++;
+            slot = this.hand;
+            this.hand = (this.hand + 1) % this.clock.length;
+        }
+
+        final int band = tile / this.tilesX;
+        final IntBuffer window = this.window(band / this.bandsPerWindow);
+        texels = new int[this.tileSize * this.tileSize];
+        window.position((int) (((band % this.bandsPerWindow) * this.bandBytes) >> 2) + (tile % this.tilesX) * texels.length);
+        window.get(texels);
+
+        this.clock[slot] = tile;
+        this.referenced[tile] = true;
+        this.tiles.set(tile, texels);
+        this.loads++;
+        return texels;
+    }
+
+    /**
+     * returns a window of the file, mapping it if it is not one of the mapped windows,
+     * the least recently used window is released for it
+     */
+    private IntBuffer window(final int number) {
+        int index = 0;
+        while (index < WINDOWS - 1 && (this.windows[index] == null || this.windowNumbers[index] != number)) {
+            index++;
+        }
+        IntBuffer window = this.windows[index];
+        if (window == null || this.windowNumbers[index] != number) {
+            final int bands = this.tiles.length() / this.tilesX;
+            final long size = Math.min(this.bandsPerWindow, bands - number * this.bandsPerWindow) * this.bandBytes;
+            try {
+                final RandomAccessFile file = new RandomAccessFile(this.imageURL, "r");
+                try {
+                    // the mapping stays valid after the file is closed
+                    window = file.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                            TiledTextureFile.HEADER_BYTES + number * this.bandsPerWindow * this.bandBytes, size).asIntBuffer();
+                } finally {
+                    file.close();
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Can't read texture " + this.imageURL, ex);
+            }
+            this.mappings++;
+        }
+        // the window moves to the front, the last one is dropped if it was not found
+        System.arraycopy(this.windows, 0, this.windows, 1, index);
+        System.arraycopy(this.windowNumbers, 0, this.windowNumbers, 1, index);
+        this.windows[0] = window;
+        this.windowNumbers[0] = number;
+        return window;
+    }
+
+    /**
+     * interpolates one channel, the channel value is taken from the lowest 8 bits
+     */
+    private static double blend(final int ff, final int fc, final int cf, final int cc, final double fx, final double fy) {
+        final double top = (ff & 0xFF) / 255.0 * (1.0 - fx) + (fc & 0xFF) / 255.0 * fx;
+        final double bottom = (cf & 0xFF) / 255.0 * (1.0 - fx) + (cc & 0xFF) / 255.0 * fx;
+        return top * (1.0 - fy) + bottom * fy;
+    }
+
+    /**
+     * wraps a texture coordinate into [0, 1)
+     */
+    private static double wrap(final double coordinate) {
+        double out = coordinate % 1.0;
+        if (out < 0.0) {
+            out += 1.0;
+        }
+        return out;
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the Light
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public String toString() {
+        return "Mapped Image: \n" + this.imageURL;
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the Light instance
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public int hashCode() {
+        int result;
+
+        result = this.imageURL.hashCode();
+        return result;
+    }
+
+    /**
+     * Overridden equals method: indicates whether the values of the given Object are the same or not
+     *
+     * @param o representing the Object to compare with
+     * @return boolean value of the result
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != this.getClass()) return false;
+
+        MappedTexture texture = (MappedTexture) o;
+        return this.imageURL.equals(texture.imageURL);
+    }
+
+    /**
+     * Comparable Method for Interface Comparable
+     *
+     * @param texture incoming Texture-Object
+     * @return int value (      0 if all attributes are equal,
+     * -1 if one of the attributes is smaller than the corresponding attribute of the incoming object,
+     * 1 if one of the attributes is greater than the corresponding attribute of the incoming object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(final Texture texture) {
+        if (this.getColor(1, 1).compareTo(texture.getColor(1, 1)) != 0)
+            return this.getColor(1, 1).compareTo(texture.getColor(1, 1));
+        return 0;
+    }
+}
@@ -0,0 +1,250 @@
+package texture;
+
+
+import color.Color;
+
+/**
+ * MipMap is the pyramid of pre-filtered levels of a texture image. Every level has half the width and height
+ * of the level below (rounded up), each of its texels is the average of the area it covers on the level below,
+ * down to one texel.
+ * The texels of the smaller levels are stored in tiles of TILE_SIZE x TILE_SIZE, so the four texels of a bilinear
+ * lookup and the lookups of neighbouring rays mostly fall into the same few cache lines. Level 0 is not copied,
+ * it is read row by row from the texels of the TexelStore, so the pyramid adds only a third of the image to the memory.
+ * <p/>
+ * Lookups interpolate trilinear: bilinear on the two levels around the requested level of detail, then between them.
+ * Level 0 is the full image and gives the same colors as TexelStore.bilinear.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class MipMap {
+
+    /**
+     * log2 of the edge length of a tile
+     */
+    public static final int TILE_BITS = 3;
+
+    /**
+     * edge length of a tile in texels, 8 x 8 packed texels are four cache lines
+     */
+    public static final int TILE_SIZE = 1 << TILE_BITS;
+
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * number of levels, the last one has one texel
+     */
+    public final int levels;
+
+    private final int[] widths;
+    private final int[] heights;
+    private final int[] tilesX;
+
+    /**
+     * texels of every level as 0xRRGGBB, level 0 row by row (the texels of the TexelStore),
+     * the other levels tile by tile and row by row within a tile
+     */
+    private final int[][] tiles;
+
+    /**
+     * builds all levels of the given texels
+     *
+     * @param store full resolution texels
+     */
+    public MipMap(final TexelStore store) {
+        int levels = 1;
+        for (int size = Math.max(store.width, store.height); size > 1; size = (size + 1) / 2) {
+            levels++;
+        }
+        this.levels = levels;
+        this.widths = new int[levels];
+        this.heights = new int[levels];
+        this.tilesX = new int[levels];
+        this.tiles = new int[levels][];
+
+        int[] texels = store.texels;
+        int width = store.width;
+        int height = store.height;
+        for (int level = 0; level < levels; level++) {
+            this.widths[level] = width;
+            this.heights[level] = height;
+            this.tilesX[level] = (width + TILE_MASK) >> TILE_BITS;
+            this.tiles[level] = level == 0 ? texels : tile(texels, width, height, this.tilesX[level]);
+            if (level + 1 < levels) {
+                final int halfWidth = (width + 1) / 2;
+                final int halfHeight = (height + 1) / 2;
+                texels = reduce(texels, width, height, halfWidth, halfHeight);
+                width = halfWidth;
+                height = halfHeight;
+            }
+        }
+    }
+
+    /**
+     * @return memory used by the levels in bytes, level 0 belongs to the TexelStore and is not counted
+     */
+    public long bytes() {
+        long bytes = 0;
+        for (int level = 1; level < this.levels; level++) {
+            bytes += 4L * this.tiles[level].length;
+        }
+        return bytes;
+    }
+
+    /**
+     * width of a level
+     *
+     * @param level number of the level, 0 is the full image
+     * @return width in texels
+     */
+    public int width(final int level) {
+        return this.widths[level];
+    }
+
+    /**
+     * height of a level
+     *
+     * @param level number of the level, 0 is the full image
+     * @return height in texels
+     */
+    public int height(final int level) {
+        return this.heights[level];
+    }
+
+    /**
+     * Get Color of the texture coordinates, interpolated trilinear between the texels of the two nearest levels
+     *
+     * @param u   horizontal texture coordinate
+     * @param v   vertical texture coordinate
+     * @param lod level of detail, 0 is the full image, 1 the first half sized level and so on
+     * @return interpolated Color
+     */
+    public Color trilinear(final double u, final double v, final double lod) {
+        final double wrappedU = wrap(u);
+        final double wrappedV = wrap(v);
+        if (!(lod > 0)) {
+            return bilinear(0, wrappedU, wrappedV);
+        }
+        if (lod >= this.levels - 1) {
+            return bilinear(this.levels - 1, wrappedU, wrappedV);
+        }
+        final int level = (int) lod;
+        final double f = lod - level;
+        if (f == 0) {
+            return bilinear(level, wrappedU, wrappedV);
+        }
+        return new Color(
+                channel(level, wrappedU, wrappedV, 16) * (1.0 - f) + channel(level + 1, wrappedU, wrappedV, 16) * f,
+                channel(level, wrappedU, wrappedV, 8) * (1.0 - f) + channel(level + 1, wrappedU, wrappedV, 8) * f,
+                channel(level, wrappedU, wrappedV, 0) * (1.0 - f) + channel(level + 1, wrappedU, wrappedV, 0) * f);
+    }
+
+    /**
+     * bilinear lookup on one level
+     */
+    private Color bilinear(final int level, final double u, final double v) {
+        return new Color(channel(level, u, v, 16), channel(level, u, v, 8), channel(level, u, v, 0));
+    }
+
+    /**
+     * bilinear interpolated value of one channel on one level, u and v already wrapped into [0, 1)
+     */
+    private double channel(final int level, final double u, final double v, final int shift) {
+        final int width = this.widths[level];
+        final int height = this.heights[level];
+        final double x = (width - 1) * u;
+        final double y = (height - 1) - ((height - 1) * v);
+
+        final int x0 = (int) Math.floor(x);
+        final int y0 = (int) Math.floor(y);
+        final int x1 = (int) Math.ceil(x);
+        final int y1 = (int) Math.ceil(y);
+        final double fx = x - x0;
+        final double fy = y - y0;
+
+        final int[] texels = this.tiles[level];
+        final int ff, fc, cf, cc;
+        if (level == 0) {
+            ff = texels[y0 * width + x0];
+            fc = texels[y0 * width + x1];
+            cf = texels[y1 * width + x0];
+            cc = texels[y1 * width + x1];
+        } else {
+            final int tiles = this.tilesX[level];
+            ff = texels[index(x0, y0, tiles)];
+            fc = texels[index(x1, y0, tiles)];
+            cf = texels[index(x0, y1, tiles)];
+            cc = texels[index(x1, y1, tiles)];
+        }
+        final double top = ((ff >>> shift) & 0xFF) / 255.0 * (1.0 - fx) + ((fc >>> shift) & 0xFF) / 255.0 * fx;
+        final double bottom = ((cf >>> shift) & 0xFF) / 255.0 * (1.0 - fx) + ((cc >>> shift) & 0xFF) / 255.0 * fx;
+        return top * (1.0 - fy) + bottom * fy;
+    }
+
+    /**
+     * position of a texel in the tiled array of a level
+     */
+    private static int index(final int x, final int y, final int tilesX) {
+        return (((y >> TILE_BITS) * tilesX + (x >> TILE_BITS)) << (2 * TILE_BITS))
+                | ((y & TILE_MASK) << TILE_BITS) | (x & TILE_MASK);
+    }
+
+    /**
+     * copies row by row texels into tiles, the last tiles of a row or column are padded
+     */
+    private static int[] tile(final int[] texels, final int width, final int height, final int tilesX) {
+        final int tilesY = (height + TILE_MASK) >> TILE_BITS;
+        final int[] tiled = new int[(tilesX * tilesY) << (2 * TILE_BITS)];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                tiled[index(x, y, tilesX)] = texels[y * width + x];
+            }
+        }
+        return tiled;
+    }
+
+    /**
+     * averages the texels covered by every texel of the smaller level per channel, weighted by the covered area,
+     * so odd sizes are filtered without shifting or repeating texels
+     */
+    private static int[] reduce(final int[] texels, final int width, final int height, final int halfWidth, final int halfHeight) {
+        final int[] reduced = new int[halfWidth * halfHeight];
+        final double scaleX = (double) width / halfWidth;
+        final double scaleY = (double) height / halfHeight;
+        for (int y = 0; y < halfHeight; y++) {
+            final double startY = y * scaleY;
+            final double endY = (y + 1) * scaleY;
+            for (int x = 0; x < halfWidth; x++) {
+                final double startX = x * scaleX;
+                final double endX = (x + 1) * scaleX;
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int j = (int) startY; j < Math.min(endY, height); j++) {
+                    final double weightY = Math.min(endY, j + 1) - Math.max(startY, j);
+                    for (int i = (int) startX; i < Math.min(endX, width); i++) {
+                        final double weight = weightY * (Math.min(endX, i + 1) - Math.max(startX, i));
+                        final int texel = texels[j * width + i];
+                        r += ((texel >>> 16) & 0xFF) * weight;
+                        g += ((texel >>> 8) & 0xFF) * weight;
+                        b += (texel & 0xFF) * weight;
+                    }
+                }
+                final double area = scaleX * scaleY;
+                reduced[y * halfWidth + x] = (int) (r / area + 0.5) << 16 | (int) (g / area + 0.5) << 8 | (int) (b / area + 0.5);
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * wraps a texture coordinate into [0, 1)
+     */
+    private static double wrap(final double coordinate) {
+        double out = coordinate % 1.0;
+        if (out < 0.0) {
+            out += 1.0;
+        }
+        return out;
+    }
+}
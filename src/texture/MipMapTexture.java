@@ -0,0 +1,157 @@
+package texture;
+
+
+import color.Color;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+
+/**
+ * MipMapTexture filters the image over the area one pixel covers on the surface, so distant and minified
+ * textures do not alias. The level of detail follows from the distance of the hit: one pixel spans
+ * pixelAngle * distance on the surface, which is pixelAngle * distance / extent in texture coordinates.
+ * <p/>
+ * The pyramid of the image is built on a background thread on the first lookup (see TextureCache.mipMap),
+ * until it is finished lookups are bilinear on the full image like InterpolatedImageTexture.
+ * The slant of the surface is not taken into account, the distance of reflected and refracted rays
+ * is measured from the last bounce.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public class MipMapTexture implements Texture {
+
+    public final static String IMAGE_DIR = "src/assets";
+    private static final double INV_LN2 = 1 / Math.log(2);
+
+    public final String imageURL;
+
+    /**
+     * angle between the rays of neighbouring pixels in radians, e.g. the angle of a PerspectiveCamera divided by the image height
+     */
+    public final double pixelAngle;
+
+    /**
+     * size on the surface covered by the texture coordinates 0 to 1, e.g. 2 * PI * r for a sphere
+     */
+    public final double extent;
+
+    /**
+     * texels of the last lookup, taken from the TextureCache again once they were evicted
+     */
+    private volatile WeakReference<TexelStore> texels;
+
+    /**
+     * constructor for MipMapTexture, the image is read from the TextureCache on the first lookup
+     *
+     * @param imageUrl   file name of the image in the IMAGE_DIR
+     * @param pixelAngle angle between the rays of neighbouring pixels in radians
+     * @param extent     size on the surface covered by the texture coordinates 0 to 1
+     */
+    public MipMapTexture(final String imageUrl, final double pixelAngle, final double extent) {
+        if (pixelAngle <= 0 || extent <= 0) {
+            throw new IllegalArgumentException("The pixel angle and the extent have to be positive!");
+        }
+        this.imageURL = IMAGE_DIR + "/" + imageUrl;
+        this.pixelAngle = pixelAngle;
+        this.extent = extent;
+        if (!new File(this.imageURL).isFile()) {
+            System.err.println("Can't read image");
+        }
+    }
+
+    /**
+     * @return decoded texels of the image
+     */
+    public TexelStore texels() {
+        final WeakReference<TexelStore> reference = this.texels;
+        TexelStore store = reference == null ? null : reference.get();
+        if (store == null) {
+            store = TextureCache.SHARED.get(this.imageURL);
+            this.texels = new WeakReference<TexelStore>(store);
+        }
+        store.markUsed();
+        return store;
+    }
+
+    /**
+     * Get Color of texture coordinations, interpolated on the full image
+     */
+    public Color getColor(final double u, final double v) {
+        return this.texels().bilinear(u, v);
+    }
+
+    /**
+     * Get Color of texture coordinations, interpolated trilinear on the levels matching the distance
+     */
+    public Color getColor(final double u, final double v, final double distance) {
+        final TexelStore store = this.texels();
+        final MipMap mipMap = TextureCache.SHARED.mipMap(this.imageURL, store);
+        if (mipMap == null) {
+            return store.bilinear(u, v);
+        }
+        final double texels = distance * this.pixelAngle / this.extent * Math.max(store.width, store.height);
+        return mipMap.trilinear(u, v, Math.log(texels) * INV_LN2);
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the Light
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public String toString() {
+        return "MipMap Image: \n" + this.imageURL;
+    }
+
+    /**
+     * Method builds an evenly distributed hash value for the Light instance
+     *
+     * @return new hash code as int
+     */
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+
+        result = this.imageURL.hashCode();
+        temp = Double.doubleToLongBits(this.pixelAngle);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(this.extent);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+
+    /**
+     * Overridden equals method: indicates whether the values of the given Object are the same or not
+     *
+     * @param o representing the Object to compare with
+     * @return boolean value of the result
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != this.getClass()) return false;
+
+        MipMapTexture texture = (MipMapTexture) o;
+        return this.imageURL.equals(texture.imageURL)
+                && Double.compare(this.pixelAngle, texture.pixelAngle) == 0
+                && Double.compare(this.extent, texture.extent) == 0;
+    }
+
+    /**
+     * Comparable Method for Interface Comparable
+     *
+     * @param texture incoming Texture-Object
+     * @return int value (      0 if all attributes are equal,
+     * -1 if one of the attributes is smaller than the corresponding attribute of the incoming object,
+     * 1 if one of the attributes is greater than the corresponding attribute of the incoming object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(final Texture texture) {
+        if (this.getColor(1, 1).compareTo(texture.getColor(1, 1)) != 0)
+            return this.getColor(1, 1).compareTo(texture.getColor(1, 1));
+        return 0;
+    }
+}
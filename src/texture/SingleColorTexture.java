@@ -24,6 +24,13 @@ public class SingleColorTexture implements Texture {
         return this.color;
     }
 
+    /**
+     * Get Color of texture coordinations, the distance is ignored
+     */
+    public Color getColor(final double u, final double v, final double distance) {
+        return this.getColor(u, v);
+    }
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
@@ -0,0 +1,148 @@
+package texture;
+
+
+import color.Color;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TexelStore holds the pixels of a texture image decoded once into a packed int array.
+ * Lookups read the array directly instead of going through the color model of the BufferedImage,
+ * and the bilinear filter blends the channels as doubles, so one lookup creates exactly one Color.
+ * Texture coordinates wrap around, v = 0 is the bottom row of the image.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class TexelStore {
+
+    /**
+     * value of every 8 bit channel value in [0, 1]
+     */
+    private static final double[] CHANNEL = new double[256];
+
+    static {
+        for (int i = 0; i < CHANNEL.length; i++) {
+            CHANNEL[i] = i / 255.0;
+        }
+    }
+
+    public final int width;
+    public final int height;
+
+    /**
+     * texels as 0xRRGGBB, row by row starting with the top row of the image
+     */
+    public final int[] texels;
+
+    /**
+     * pyramid of the texels once it is built, see TextureCache.mipMap
+     */
+    volatile MipMap mipMap;
+
+    /**
+     * set when the pyramid is requested the first time
+     */
+    final AtomicBoolean mipMapRequested = new AtomicBoolean();
+
+    /**
+     * set by every lookup, cleared by the TextureCache when it passes the texels while evicting
+     */
+    volatile boolean referenced = true;
+
+    /**
+     * decodes all pixels of the given image
+     *
+     * @param image image to decode
+     */
+    public TexelStore(final BufferedImage image) {
+        if (image == null) {
+            throw new IllegalArgumentException("The image cannot be null!");
+        }
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.texels = image.getRGB(0, 0, this.width, this.height, null, 0, this.width);
+    }
+
+    /**
+     * marks the texels as used for the TextureCache, called by the textures on every lookup,
+     * the field is only written if it was cleared, so lookups of several threads do not contend
+     */
+    void markUsed() {
+        if (!this.referenced) {
+            this.referenced = true;
+        }
+    }
+
+    /**
+     * @return memory used by the texels and their pyramid in bytes
+     */
+    public long bytes() {
+        final MipMap mipMap = this.mipMap;
+        return 4L * this.texels.length + (mipMap == null ? 0 : mipMap.bytes());
+    }
+
+    /**
+     * Get Color of the texel nearest to the texture coordinates
+     *
+     * @param u horizontal texture coordinate
+     * @param v vertical texture coordinate
+     * @return Color of the texel
+     */
+    public Color nearest(final double u, final double v) {
+        final double x = (this.width - 1) * wrap(u);
+        final double y = (this.height - 1) - ((this.height - 1) * wrap(v));
+
+        final int texel = this.texels[(int) Math.round(y) * this.width + (int) Math.round(x)];
+        return new Color(CHANNEL[(texel >>> 16) & 0xFF], CHANNEL[(texel >>> 8) & 0xFF], CHANNEL[texel & 0xFF]);
+    }
+
+    /**
+     * Get Color of the texture coordinates, interpolated bilinear between the four surrounding texels
+     *
+     * @param u horizontal texture coordinate
+     * @param v vertical texture coordinate
+     * @return interpolated Color
+     */
+    public Color bilinear(final double u, final double v) {
+        final double x = (this.width - 1) * wrap(u);
+        final double y = (this.height - 1) - ((this.height - 1) * wrap(v));
+
+        final int x0 = (int) Math.floor(x);
+        final int y0 = (int) Math.floor(y);
+        final int x1 = (int) Math.ceil(x);
+        final int y1 = (int) Math.ceil(y);
+        final double fx = x - x0;
+        final double fy = y - y0;
+
+        final int ff = this.texels[y0 * this.width + x0];
+        final int fc = this.texels[y0 * this.width + x1];
+        final int cf = this.texels[y1 * this.width + x0];
+        final int cc = this.texels[y1 * this.width + x1];
+
+        return new Color(blend(ff >>> 16, fc >>> 16, cf >>> 16, cc >>> 16, fx, fy),
+                blend(ff >>> 8, fc >>> 8, cf >>> 8, cc >>> 8, fx, fy),
+                blend(ff, fc, cf, cc, fx, fy));
+    }
+
+    /**
+     * interpolates one channel, the channel value is taken from the lowest 8 bits
+     */
+    private static double blend(final int ff, final int fc, final int cf, final int cc, final double fx, final double fy) {
+        final double top = CHANNEL[ff & 0xFF] * (1.0 - fx) + CHANNEL[fc & 0xFF] * fx;
+        final double bottom = CHANNEL[cf & 0xFF] * (1.0 - fx) + CHANNEL[cc & 0xFF] * fx;
+        return top * (1.0 - fy) + bottom * fy;
+    }
+
+    /**
+     * wraps a texture coordinate into [0, 1)
+     */
+    private static double wrap(final double coordinate) {
+        double out = coordinate % 1.0;
+        if (out < 0.0) {
+            out += 1.0;
+        }
+        return out;
+    }
+}
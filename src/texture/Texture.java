@@ -16,6 +16,17 @@ public interface Texture extends Comparable<Texture> {
      */
     public Color getColor(final double u, final double v);
 
+    /**
+     * Get Color of texture coordinations seen from the given distance, textures with
+     * levels of detail filter over the area one pixel covers at that distance
+     *
+     * @param u        horizontal texture coordinate
+     * @param v        vertical texture coordinate
+     * @param distance distance between the origin of the ray and the hit
+     * @return Color of the texture
+     */
+    public Color getColor(final double u, final double v, final double distance);
+
     /**
      * Method builds an evenly distributed hash value for the Light
      *
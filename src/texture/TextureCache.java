@@ -0,0 +1,286 @@
+package texture;
+
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+
+/**
+ * TextureCache shares the decoded texels of image files between all textures of the process.
+ * An image is read on the first lookup of a texture using it, textures of the same path share one TexelStore.
+ * The cache keeps the decoded images within a memory budget, when a new image would exceed it
+ * images that were not used since the last sweep are evicted (clock algorithm, an approximation of
+ * least recently used): every lookup of a texture marks its texels, an evicting sweep clears the mark
+ * and gives marked images a second chance.
+ * <p/>
+ * Images are decoded outside the lock of the cache, lookups of cached images go on while an image
+ * is read. Threads requesting an image that is being read wait for that read instead of reading it again.
+ * <p/>
+ * Textures keep only a weak reference to their TexelStore, so an evicted image can be collected
+ * once no lookup is using it anymore, and is read again on its next lookup.
+ * The budget of the shared cache is set with the system property texture.cache.bytes,
+ * it defaults to a quarter of the maximum heap.
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class TextureCache {
+
+    /**
+     * cache used by all image textures
+     */
+    public static final TextureCache SHARED = new TextureCache(
+            Long.getLong("texture.cache.bytes", Runtime.getRuntime().maxMemory() / 4));
+
+    /**
+     * memory budget in bytes
+     */
+    public final long budget;
+
+    /**
+     * decoded images in the order of the clock, the next candidate for eviction first
+     */
+    private final LinkedHashMap<String, TexelStore> entries = new LinkedHashMap<String, TexelStore>(16, 0.75f, true);
+
+    /**
+     * images being read, by path
+     */
+    private final Map<String, FutureTask<TexelStore>> loading = new HashMap<String, FutureTask<TexelStore>>();
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * constructor for TextureCache
+     *
+     * @param budget memory budget in bytes
+     */
+    public TextureCache(final long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("The budget has to be positive!");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * returns the decoded texels of an image, reading the image if it is not cached
+     *
+     * @param path path of the image file
+     * @return texels of the image
+     * @throws IllegalArgumentException if the image can not be read
+     */
+    public TexelStore get(final String path) {
+        final FutureTask<TexelStore> task;
+        final boolean reader;
+        synchronized (this) {
+            final TexelStore store = this.entries.get(path);
+            if (store != null) {
+                this.hits++;
+                store.markUsed();
+                return store;
+            }
+            final FutureTask<TexelStore> running = this.loading.get(path);
+            reader = running == null;
+            if (reader) {
+                this.misses++;
+                task = new FutureTask<TexelStore>(new Callable<TexelStore>() {
+                    @Override
+                    public TexelStore call() {
+                        return new TexelStore(read(path));
+                    }
+                });
+                this.loading.put(path, task);
+            } else {
+                // the image is being read, the request waits for it
+                this.hits++;
+                task = running;
+            }
+        }
+
+        if (reader) {
+            task.run();
+            synchronized (this) {
+                this.loading.remove(path);
+                final TexelStore store = done(task);
+                if (store != null) {
+                    this.entries.put(path, store);
+                    this.bytes += store.bytes();
+                    evict();
+                }
+            }
+        }
+        return result(path, task);
+    }
+
+    /**
+     * returns the pyramid of the given texels. The first call starts building it on a background thread,
+     * until it is finished null is returned and the caller has to sample the full resolution texels.
+     * The pyramid is counted against the budget as part of the texels.
+     *
+     * @param path  path of the image file of the texels
+     * @param store texels returned by get for the path
+     * @return the pyramid, null while it is built
+     */
+    public MipMap mipMap(final String path, final TexelStore store) {
+        final MipMap mipMap = store.mipMap;
+        if (mipMap == null && store.mipMapRequested.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(new Runnable() {
+                @Override
+                public void run() {
+                    attach(path, store, new MipMap(store));
+                }
+            });
+        }
+        return mipMap;
+    }
+
+    /**
+     * stores a finished pyramid and counts it if its texels are still cached
+     */
+    private synchronized void attach(final String path, final TexelStore store, final MipMap mipMap) {
+        store.mipMap = mipMap;
+        if (this.entries.containsKey(path) && this.entries.get(path) == store) {
+            this.bytes += mipMap.bytes();
+            evict();
+        }
+    }
+
+    /**
+     * evicts images not used since the last sweep until the budget is kept, the most recently added is always kept.
+     * A used image loses its mark and moves to the end of the clock, every image gets at most one second chance
+     * per call, so lookups marking images meanwhile can not keep the sweep going.
+     */
+    private void evict() {
+        int chances = this.entries.size();
+        while (this.bytes > this.budget && this.entries.size() > 1) {
+            final Map.Entry<String, TexelStore> eldest = this.entries.entrySet().iterator().next();
+            final TexelStore store = eldest.getValue();
+            if (store.referenced && chances-- > 0) {
+                store.referenced = false;
+                // the access order of the map moves it to the end
+                this.entries.get(eldest.getKey());
+                continue;
+            }
+            this.entries.remove(eldest.getKey());
+            this.bytes -= store.bytes();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * evicts all images
+     */
+    public synchronized void clear() {
+        this.evictions += this.entries.size();
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    /**
+     * @return number of cached images
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return bytes used by the cached images
+     */
+    public synchronized long bytes() {
+        return this.bytes;
+    }
+
+    /**
+     * @return number of requests that found the image in the cache
+     */
+    public synchronized long hits() {
+        return this.hits;
+    }
+
+    /**
+     * @return number of requests that had to read the image
+     */
+    public synchronized long misses() {
+        return this.misses;
+    }
+
+    /**
+     * @return number of images evicted to stay within the budget
+     */
+    public synchronized long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * shows the counters of the cache
+     *
+     * @return String with size, usage and counters
+     */
+    @Override
+    public synchronized String toString() {
+        return "TextureCache{" +
+                "size=" + this.entries.size() +
+                ", bytes=" + this.bytes +
+                ", budget=" + this.budget +
+                ", hits=" + this.hits +
+                ", misses=" + this.misses +
+                ", evictions=" + this.evictions +
+                '}';
+    }
+
+    /**
+     * @return texels of a finished read, null if the read failed
+     */
+    private static TexelStore done(final FutureTask<TexelStore> task) {
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * waits for a read and passes on its failure
+     */
+    private static TexelStore result(final String path, final FutureTask<TexelStore> task) {
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalArgumentException("Can't read image " + path, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading image " + path, ex);
+        }
+    }
+
+    /**
+     * reads an image file
+     */
+    private static BufferedImage read(final String path) {
+        try {
+            final BufferedImage image = ImageIO.read(new File(path));
+            if (image != null) {
+                return image;
+            }
+        } catch (IOException ex) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Can't read image " + path);
+    }
+}
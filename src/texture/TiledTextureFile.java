@@ -0,0 +1,185 @@
+package texture;
+
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+/**
+ * TiledTextureFile converts images into the tiled texel files read by MappedTexture.
+ * <p/>
+ * The file starts with a header of HEADER_BYTES: the MAGIC number, the width, the height and the edge length
+ * of a tile, all as big endian ints. Then follow the bands of tiles from the top of the image to the bottom,
+ * each band is one row of tiles from left to right, each tile has tileSize x tileSize texels as big endian
+ * 0xRRGGBB ints row by row. Tiles at the right and bottom edge are padded to the full size, so every band
+ * has the same size and a texel is found without reading any index.
+ * <p/>
+ * The converter decodes the image in strips of whole bands, as high as the decode budget allows, so images
+ * larger than the heap can be converted. Formats without random access to the rows, like JPEG, are decoded
+ * from the top again for every strip, so n strips take about (n + 1) / 2 times as long as decoding the whole
+ * image once. The budget defaults to the system property texture.convert.bytes, a quarter of the maximum heap
+ * if not set, a larger budget means fewer strips.
+ * Usage: java [-Dtexture.convert.bytes=budget] texture.TiledTextureFile image output [tileSize]
+ *
+ * @author Marco Kollosche, Lukas Abegg, András Bucsi
+ * @version Beschleunigung 2015-02-10
+ */
+public final class TiledTextureFile {
+
+    /**
+     * first int of every tiled texel file, "RTTX"
+     */
+    public static final int MAGIC = 0x52545458;
+
+    /**
+     * size of the header in bytes
+     */
+    public static final int HEADER_BYTES = 16;
+
+    /**
+     * default edge length of a tile, 64 x 64 texels are 16 KB
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * default budget for one decoded strip of the image in bytes
+     */
+    public static final long DEFAULT_DECODE_BUDGET = Long.getLong("texture.convert.bytes", Runtime.getRuntime().maxMemory() / 4);
+
+    private TiledTextureFile() {
+    }
+
+    /**
+     * converts an image file into a tiled texel file with the default decode budget
+     *
+     * @param image    path of the image file
+     * @param output   path of the written file
+     * @param tileSize edge length of a tile in texels, a power of two
+     * @throws IOException if the image can not be read or the file can not be written
+     */
+    public static void convert(final String image, final String output, final int tileSize) throws IOException {
+        convert(image, output, tileSize, DEFAULT_DECODE_BUDGET);
+    }
+
+    /**
+     * converts an image file into a tiled texel file
+     *
+     * @param image        path of the image file
+     * @param output       path of the written file
+     * @param tileSize     edge length of a tile in texels, a power of two
+     * @param decodeBudget maximum number of bytes of one decoded strip, at least one band of tiles is decoded at once
+     * @throws IOException if the image can not be read or the file can not be written
+     */
+    public static void convert(final String image, final String output, final int tileSize, final long decodeBudget) throws IOException {
+        if (tileSize <= 0 || (tileSize & (tileSize - 1)) != 0) {
+            throw new IllegalArgumentException("The tile size has to be a power of two!");
+        }
+        if (decodeBudget <= 0) {
+            throw new IllegalArgumentException("The decode budget has to be positive!");
+        }
+        final ImageInputStream input = ImageIO.createImageInputStream(new File(image));
+        if (input == null) {
+            throw new IOException("Can't read image " + image);
+        }
+        try {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Can't read image " + image);
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                write(reader, output, tileSize, decodeBudget);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * decodes the image of the reader strip by strip and writes the tiles band by band
+     */
+    private static void write(final ImageReader reader, final String output, final int tileSize, final long decodeBudget) throws IOException {
+        final int width = reader.getWidth(0);
+        final int height = reader.getHeight(0);
+        final int tilesX = (width + tileSize - 1) / tileSize;
+        final int bands = (height + tileSize - 1) / tileSize;
+        // a decoded texel takes at most 4 bytes, the strip is also limited by the maximum size of an image
+        final long stripBands = Math.min(decodeBudget / (4L * width * tileSize), Integer.MAX_VALUE / (4L * width * tileSize));
+        final int bandsPerStrip = (int) Math.max(1, Math.min(bands, stripBands));
+        final ByteBuffer band = ByteBuffer.allocate(tilesX * tileSize * tileSize * 4);
+        final int[] rgb = new int[width * tileSize];
+
+        final RandomAccessFile file = new RandomAccessFile(output, "rw");
+        try {
+            file.setLength(0);
+            final FileChannel channel = file.getChannel();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(width).putInt(height).putInt(tileSize).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            final ImageReadParam param = reader.getDefaultReadParam();
+            BufferedImage strip = null;
+            int stripY = 0;
+            for (int b = 0; b < bands; b++) {
+                if (b % bandsPerStrip == 0) {
+                    // release the last strip before the next one is decoded
+                    strip = null;
+                    stripY = b * tileSize;
+                    param.setSourceRegion(new Rectangle(0, stripY, width, Math.min(bandsPerStrip * tileSize, height - stripY)));
+                    strip = reader.read(0, param);
+                }
+                final int rows = Math.min(tileSize, height - b * tileSize);
+                strip.getRGB(0, b * tileSize - stripY, width, rows, rgb, 0, width);
+
+                band.clear();
+                for (int tile = 0; tile < tilesX; tile++) {
+                    for (int y = 0; y < tileSize; y++) {
+                        for (int x = 0; x < tileSize; x++) {
+                            final int px = tile * tileSize + x;
+                            band.putInt(px < width && y < rows ? rgb[y * width + px] & 0xFFFFFF : 0);
+                        }
+                    }
+                }
+                band.flip();
+                while (band.hasRemaining()) {
+                    channel.write(band);
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Main Method, converts an image into a tiled texel file
+     *
+     * @param args image file, output file and optionally the tile size
+     * @throws IOException if the image can not be read or the file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java [-Dtexture.convert.bytes=budget] texture.TiledTextureFile image output [tileSize]");
+            System.err.println("A JPEG is decoded from the top again for every strip of at most budget bytes,");
+            System.err.println("n strips take about (n + 1) / 2 times as long as one decode of the image.");
+            return;
+        }
+        final int tileSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TILE_SIZE;
+        final long start = System.currentTimeMillis();
+        convert(args[0], args[1], tileSize);
+        System.out.println("Converted " + args[0] + " to " + args[1] + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
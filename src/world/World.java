@@ -1,6 +1,7 @@
 package world;
 
 import color.Color;
+import geometry.BVH;
 import geometry.Geometry;
 import geometry.Hit;
 import ray.Ray;
@@ -23,10 +24,57 @@ public class World {
      */
     public static final Color BACKGROUND_COLOR = new Color(0, 0, 0);
 
+    /**
+     * default maximum number of nested reflected and refracted rays
+     */
+    public static final int DEFAULT_MAX_DEPTH = 7;
+
+    /**
+     * maxDepth of a world without a configured depth: the depth is DEFAULT_MAX_DEPTH, but a transparent
+     * material hit by a primary ray limits its paths to (int) indexOfRefraction + 1 nested rays
+     */
+    public static final int MATERIAL_DEPTH = -1;
+
+    /**
+     * maximum number of nested reflected and refracted rays, used by all materials of the world
+     */
+    public final int maxDepth;
+
+    /**
+     * true if maxDepth was configured, false if it is the default and materials may use smaller limits (see MATERIAL_DEPTH)
+     */
+    public final boolean depthConfigured;
+
+    /**
+     * default throughput below which a ray is not traced, half a step of an 8 bit channel
+     */
+    public static final double DEFAULT_MIN_THROUGHPUT = 1.0 / 512;
+
+    /**
+     * default throughput below which rays are terminated by russian roulette, 0: roulette is opt-in,
+     * it makes a render with few samples noisy, e.g. most first reflections of glass have a weight below 0.05
+     */
+    public static final double DEFAULT_ROULETTE_THRESHOLD = 0;
+
+    /**
+     * throughput below which a secondary ray is not traced, its contribution is invisible
+     */
+    public final double minThroughput;
+
+    /**
+     * throughput below which secondary rays are terminated by russian roulette, 0 to trace all rays
+     */
+    public final double rouletteThreshold;
+
     /* geometries of the world */
     public final ArrayList<Geometry> geoList;
     /* lights of the world */
     public final ArrayList<Light> lights;
+    /* true if hit uses a bounding volume hierarchy, false for the linear scan over geoList */
+    public final boolean accelerated;
+
+    /* bounding volume hierarchy over geoList, built on the first hit */
+    private volatile BVH bvh;
 
     /**
      * Constructor for World
@@ -35,8 +83,54 @@ public class World {
      * @param lights ArrayList of Light instances (ArrayList<Light>)
      */
     public World(final Color ambientLight, ArrayList<Geometry> geoList, ArrayList<Light> lights, final double indexOfRefraction) {
+        this(ambientLight, geoList, lights, indexOfRefraction, true);
+    }
+
+    /**
+     * Constructor for World
+     *  @param ambientLight background color of the World   (Color)
+     * @param geoList ArrayList of Geometry instances (ArrayList<Geometry>)
+     * @param lights ArrayList of Light instances (ArrayList<Light>)
+     * @param accelerated true to use a bounding volume hierarchy, false for the linear scan (boolean)
+     */
+    public World(final Color ambientLight, ArrayList<Geometry> geoList, ArrayList<Light> lights, final double indexOfRefraction, final boolean accelerated) {
+        this(ambientLight, geoList, lights, indexOfRefraction, accelerated, MATERIAL_DEPTH);
+    }
+
+    /**
+     * Constructor for World
+     *  @param ambientLight background color of the World   (Color)
+     * @param geoList ArrayList of Geometry instances (ArrayList<Geometry>)
+     * @param lights ArrayList of Light instances (ArrayList<Light>)
+     * @param accelerated true to use a bounding volume hierarchy, false for the linear scan (boolean)
+     * @param maxDepth maximum number of nested reflected and refracted rays, or MATERIAL_DEPTH (int)
+     */
+    public World(final Color ambientLight, ArrayList<Geometry> geoList, ArrayList<Light> lights, final double indexOfRefraction, final boolean accelerated, final int maxDepth) {
+        this(ambientLight, geoList, lights, indexOfRefraction, accelerated, maxDepth, DEFAULT_MIN_THROUGHPUT, DEFAULT_ROULETTE_THRESHOLD);
+    }
+
+    /**
+     * Constructor for World
+     *  @param ambientLight background color of the World   (Color)
+     * @param geoList ArrayList of Geometry instances (ArrayList<Geometry>)
+     * @param lights ArrayList of Light instances (ArrayList<Light>)
+     * @param accelerated true to use a bounding volume hierarchy, false for the linear scan (boolean)
+     * @param maxDepth maximum number of nested reflected and refracted rays, or MATERIAL_DEPTH (int)
+     * @param minThroughput throughput below which a secondary ray is not traced, 0 to trace all (double)
+     * @param rouletteThreshold throughput below which rays are terminated by russian roulette, 0 to trace all (double)
+     */
+    public World(final Color ambientLight, ArrayList<Geometry> geoList, ArrayList<Light> lights, final double indexOfRefraction, final boolean accelerated,
+                 final int maxDepth, final double minThroughput, final double rouletteThreshold) {
+        if (maxDepth < 0 && maxDepth != MATERIAL_DEPTH) throw new IllegalArgumentException("maxDepth must not be negative");
+        if (!(minThroughput >= 0)) throw new IllegalArgumentException("minThroughput must not be negative");
+        if (!(rouletteThreshold >= 0)) throw new IllegalArgumentException("rouletteThreshold must not be negative");
+        this.depthConfigured = maxDepth != MATERIAL_DEPTH;
+        this.maxDepth = depthConfigured ? maxDepth : DEFAULT_MAX_DEPTH;
+        this.minThroughput = minThroughput;
+        this.rouletteThreshold = rouletteThreshold;
         this.ambientLight = ambientLight;
         this.indexOfRefraction = indexOfRefraction;
+        this.accelerated = accelerated;
 
         if (lights == null) {
             this.lights = new ArrayList<>();
@@ -73,6 +167,9 @@ public class World {
      * @return possible intersection, or null
      */
     public Hit hit( final Ray ray ){
+        if (accelerated) {
+            return bvh().hit(ray);
+        }
         Hit closestHit = null;
         for( Geometry geo : geoList ){
             Hit currentHit = geo.hit(ray);
@@ -83,6 +180,52 @@ public class World {
         return closestHit;
     }
 
+    /**
+     * Method checks whether any object of this World blocks the given Ray before maxT.
+     * Used for shadow rays, which only need to know if there is a blocker, not which one is closest.
+     *
+     * @param ray  given Ray to test for intersection
+     * @param maxT distance along the ray up to which intersections count (e.g. distance to the light)
+     * @return true if an object blocks the ray
+     */
+    public boolean occluded( final Ray ray, final double maxT ){
+        if (accelerated) {
+            return bvh().occludes(ray, maxT);
+        }
+        for( Geometry geo : geoList ){
+            if ( geo.occludes(ray, maxT) ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method returns the bounding volume hierarchy over geoList. It is (re)built on the first call
+     * and whenever the number of geometries has changed since the last build.
+     *
+     * @return the current BVH
+     */
+    private BVH bvh() {
+        BVH current = this.bvh;
+        if (current == null || current.size != geoList.size()) {
+            synchronized (this) {
+                current = this.bvh;
+                if (current == null || current.size != geoList.size()) {
+                    current = new BVH(new ArrayList<Geometry>(geoList));
+                    this.bvh = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Method discards the bounding volume hierarchy, so it is rebuilt on the next hit.
+     * Needed if geometries of geoList have been replaced without changing its size.
+     */
+    public void invalidate() {
+        this.bvh = null;
+    }
+
     /**
      * shows the World instance as String
      *